@@ -0,0 +1,179 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+
+import twg2.collections.primitiveCollections.CharListReadOnly;
+import twg2.functions.predicates.CharPredicate;
+import twg2.parser.condition.text.CharParserPredicate;
+import twg2.parser.textParser.TextParser;
+
+/** An immutable set of chars with constant time membership tests regardless of the number of chars in the set.<br>
+ * ASCII chars are stored in two {@code long} bit masks, the rest of the BMP is stored in 256 chars per page bitmaps
+ * (four {@code long}s each) which are only allocated for pages containing at least one char of the set.
+ * Instances are thread safe and can be shared by any number of factories and parsers.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public final class CharBitSet implements CharParserPredicate, CharPredicate {
+	/** chars 0-63 */
+	final long ascii0;
+	/** chars 64-127 */
+	final long ascii1;
+	/** bitmaps for chars 128 and above indexed by {@code ch >>> 8}, null if the set has no non-ASCII chars,
+	 * the ASCII half of page 0 is never used */
+	final long[][] pages;
+	final int size;
+
+
+	CharBitSet(long ascii0, long ascii1, long[][] pages, int size) {
+		this.ascii0 = ascii0;
+		this.ascii1 = ascii1;
+		this.pages = pages;
+		this.size = size;
+	}
+
+
+	@Override
+	public boolean test(char ch, TextParser buf) {
+		return contains(ch);
+	}
+
+
+	@Override
+	public boolean test(char ch) {
+		return contains(ch);
+	}
+
+
+	public boolean contains(char ch) {
+		if(ch < 128) {
+			// long shifts only use the low 6 bits of the shift distance, select the mask without a branch
+			long mask = ascii0 ^ ((ascii0 ^ ascii1) & -(ch >>> 6));
+			return ((mask >>> ch) & 1) != 0;
+		}
+		var pages = this.pages;
+		if(pages == null) {
+			return false;
+		}
+		var page = pages[ch >>> 8];
+		return page != null && (page[(ch >>> 6) & 3] & (1L << ch)) != 0;
+	}
+
+
+	/**
+	 * @return the number of distinct chars in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+
+	/**
+	 * @return the chars in this set in ascending order
+	 */
+	public char[] toArray() {
+		var res = new char[size];
+		int i = 0;
+		for(int ch = 0; ch <= Character.MAX_VALUE && i < size; ch++) {
+			if(contains((char)ch)) {
+				res[i++] = (char)ch;
+			}
+		}
+		return res;
+	}
+
+
+	@Override
+	public String toString() {
+		return "one " + Arrays.toString(toArray());
+	}
+
+
+	public static CharBitSet of(char... chars) {
+		return of(chars, 0, chars.length);
+	}
+
+
+	public static CharBitSet of(CharListReadOnly chars) {
+		return of(chars.toArray(), 0, chars.size());
+	}
+
+
+	public static CharBitSet of(char[] chars, int off, int len) {
+		long ascii0 = 0;
+		long ascii1 = 0;
+		long[][] pages = null;
+		int size = 0;
+		for(int i = off, end = off + len; i < end; i++) {
+			char ch = chars[i];
+			if(ch < 64) {
+				size += (ascii0 & (1L << ch)) == 0 ? 1 : 0;
+				ascii0 |= 1L << ch;
+			}
+			else if(ch < 128) {
+				size += (ascii1 & (1L << ch)) == 0 ? 1 : 0;
+				ascii1 |= 1L << ch;
+			}
+			else {
+				if(pages == null) {
+					pages = new long[256][];
+				}
+				var page = pages[ch >>> 8];
+				if(page == null) {
+					page = pages[ch >>> 8] = new long[4];
+				}
+				int word = (ch >>> 6) & 3;
+				size += (page[word] & (1L << ch)) == 0 ? 1 : 0;
+				page[word] |= 1L << ch;
+			}
+		}
+		return new CharBitSet(ascii0, ascii1, pages, size);
+	}
+
+
+	/** Create a set from a bitmap of the whole BMP
+	 * @param bits 1024 longs, bit {@code ch & 63} of {@code bits[ch >>> 6]} is set for each char in the set
+	 */
+	static CharBitSet ofBits(long[] bits) {
+		long[][] pages = null;
+		int size = 0;
+		for(int i = 0; i < 1024; i++) {
+			size += Long.bitCount(bits[i]);
+		}
+		// page 0 only needs its non-ASCII half
+		for(int p = 0; p < 256; p++) {
+			int w = p << 2;
+			if((p == 0 ? 0 : bits[w] | bits[w + 1]) != 0 || (bits[w + 2] | bits[w + 3]) != 0) {
+				if(pages == null) {
+					pages = new long[256][];
+				}
+				pages[p] = Arrays.copyOfRange(bits, w, w + 4);
+			}
+		}
+		return new CharBitSet(bits[0], bits[1], pages, size);
+	}
+
+
+	/** Create a first char matcher for a set of chars, one or two chars are compared directly (slightly faster than a bit lookup),
+	 * anything larger uses a {@link CharBitSet}
+	 * @param chars the chars to match
+	 * @return a predicate which returns true for any of the {@code chars}
+	 */
+	public static CharParserPredicate matcherFor(char[] chars) {
+		if(chars.length == 1) {
+			var ch1 = chars[0];
+			return (char ch, TextParser buf) -> {
+				return ch1 == ch;
+			};
+		}
+		else if(chars.length == 2) {
+			var ch1 = chars[0];
+			var ch2 = chars[1];
+			return (char ch, TextParser buf) -> {
+				return ch1 == ch || ch2 == ch;
+			};
+		}
+		return of(chars);
+	}
+
+}
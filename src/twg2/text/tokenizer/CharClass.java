@@ -0,0 +1,250 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+
+import twg2.collections.primitiveCollections.CharListReadOnly;
+import twg2.functions.predicates.CharPredicate;
+import twg2.parser.condition.text.CharParserPredicate;
+import twg2.parser.textParser.TextParser;
+import twg2.ranges.CharSearchSet;
+
+/** An immutable class of chars (like a regex {@code [...]} character class) built from chars, ranges, a {@link CharSearchSet},
+ * or {@link Character#getType(char) Unicode categories} and compiled to a {@link CharBitSet} lookup table.<br>
+ * {@link CharConditions} accept a {@code CharClass} in place of a {@link CharPredicate}, so testing a char is a single
+ * mask or bitmap lookup no matter how many chars, ranges, or categories the class was built from.
+ * Instances are thread safe and shared by all copies of a condition.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public final class CharClass implements CharPredicate, CharParserPredicate {
+	/** the maximum number of ASCII ranges which {@link #swarRanges} are created for */
+	static final int MAX_SWAR_RANGES = 8;
+
+	final CharBitSet table;
+	final String description;
+	/** pairs of per-byte addends which test eight ASCII bytes at a time against each ASCII range of this class (see {@link CharRunScanner}),
+	 * null if the ASCII part of the class has more than {@link #MAX_SWAR_RANGES} ranges */
+	final long[] swarRanges;
+
+
+	CharClass(CharBitSet table, String description) {
+		this.table = table;
+		this.description = description;
+		this.swarRanges = createSwarRanges(table);
+	}
+
+
+	@Override
+	public boolean test(char ch) {
+		return table.contains(ch);
+	}
+
+
+	@Override
+	public boolean test(char ch, TextParser buf) {
+		return table.contains(ch);
+	}
+
+
+	public boolean contains(char ch) {
+		return table.contains(ch);
+	}
+
+
+	/**
+	 * @return the number of chars in this class
+	 */
+	public int size() {
+		return table.size();
+	}
+
+
+	/**
+	 * @return the chars in this class in ascending order
+	 */
+	public char[] toCharArray() {
+		return table.toArray();
+	}
+
+
+	public CharBitSet getTable() {
+		return table;
+	}
+
+
+	@Override
+	public String toString() {
+		return description;
+	}
+
+
+	public static CharClass of(char... chars) {
+		return builder().addChars(chars).build();
+	}
+
+
+	public static CharClass of(CharListReadOnly chars) {
+		return builder().addChars(chars.toArray()).build();
+	}
+
+
+	public static CharClass of(CharSearchSet chars) {
+		return builder().addAll(chars).build();
+	}
+
+
+	public static CharClass range(char lower, char upper) {
+		return builder().addRange(lower, upper).build();
+	}
+
+
+	/**
+	 * @param categories {@link Character#getType(char)} categories, for example {@link Character#UPPERCASE_LETTER}
+	 */
+	public static CharClass category(byte... categories) {
+		return builder().addCategory(categories).build();
+	}
+
+
+	public static Builder builder() {
+		return new Builder();
+	}
+
+
+	private static long[] createSwarRanges(CharBitSet table) {
+		var ranges = new long[MAX_SWAR_RANGES * 2];
+		int size = 0;
+		for(int ch = 0; ch < 128; ch++) {
+			if(table.contains((char)ch)) {
+				int lower = ch;
+				while(ch + 1 < 128 && table.contains((char)(ch + 1))) {
+					ch++;
+				}
+				if(size == ranges.length) {
+					return null;
+				}
+				// a byte 'b' < 0x80 is >= 'lower' if 'b + 0x80 - lower' has its high bit set and > 'ch' if 'b + 0x7F - ch' has its high bit set
+				ranges[size++] = (0x80L - lower) * CharRunScanner.ONES;
+				ranges[size++] = (0x7FL - ch) * CharRunScanner.ONES;
+			}
+		}
+		return Arrays.copyOf(ranges, size);
+	}
+
+
+
+
+	/** Builds a {@link CharClass}, each {@code add*()} method adds to the class and to its description
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	public static class Builder {
+		/** a bitmap of the whole BMP */
+		private final long[] bits = new long[1024];
+		private final StringBuilder description = new StringBuilder();
+		private boolean negate;
+
+
+		public Builder addChar(char ch) {
+			bits[ch >>> 6] |= 1L << ch;
+			appendChar(ch);
+			return this;
+		}
+
+
+		public Builder addChars(char... chars) {
+			for(char ch : chars) {
+				addChar(ch);
+			}
+			return this;
+		}
+
+
+		public Builder addRange(char lower, char upper) {
+			if(lower > upper) {
+				throw new IllegalArgumentException("range lower bound '" + lower + "' is greater than upper bound '" + upper + "'");
+			}
+			for(int ch = lower; ch <= upper; ch++) {
+				bits[ch >>> 6] |= 1L << ch;
+			}
+			appendChar(lower);
+			description.append('-');
+			appendChar(upper);
+			return this;
+		}
+
+
+		public Builder addAll(CharSearchSet chars) {
+			var list = chars.toCharList();
+			for(int i = 0, size = list.size(); i < size; i++) {
+				char ch = list.get(i);
+				bits[ch >>> 6] |= 1L << ch;
+			}
+			description.append(chars);
+			return this;
+		}
+
+
+		public Builder addAll(CharClass chars) {
+			var table = chars.table;
+			for(int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+				if(table.contains((char)ch)) {
+					bits[ch >>> 6] |= 1L << ch;
+				}
+			}
+			description.append(chars.description);
+			return this;
+		}
+
+
+		/**
+		 * @param categories {@link Character#getType(char)} categories, for example {@link Character#DECIMAL_DIGIT_NUMBER}
+		 */
+		public Builder addCategory(byte... categories) {
+			int mask = 0;
+			for(byte category : categories) {
+				mask |= 1 << category;
+				description.append("\\p{").append(category).append('}');
+			}
+			for(int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+				if((mask & (1 << Character.getType(ch))) != 0) {
+					bits[ch >>> 6] |= 1L << ch;
+				}
+			}
+			return this;
+		}
+
+
+		/** Invert the class when it is built, it will match every char which was not added
+		 */
+		public Builder negate() {
+			this.negate = !this.negate;
+			return this;
+		}
+
+
+		public CharClass build() {
+			var bits = this.bits.clone();
+			if(negate) {
+				for(int i = 0; i < bits.length; i++) {
+					bits[i] = ~bits[i];
+				}
+			}
+			return new CharClass(CharBitSet.ofBits(bits), (negate ? "[^" : "[") + description + "]");
+		}
+
+
+		private void appendChar(char ch) {
+			if(ch == '-' || ch == '^' || ch == '\\' || ch == ']') {
+				description.append('\\').append(ch);
+			}
+			else if(ch < 32 || ch > 126) {
+				description.append(String.format("\\u%04X", (int)ch));
+			}
+			else {
+				description.append(ch);
+			}
+		}
+	}
+
+}
@@ -2,7 +2,6 @@ package twg2.text.tokenizer;
 
 import java.util.Collection;
 
-import twg2.arrays.ArrayManager;
 import twg2.parser.condition.ParserCondition;
 import twg2.parser.condition.text.CharParser;
 import twg2.parser.textFragment.TextFragmentRef;
@@ -34,8 +33,17 @@ public class CharCompoundConditions {
 	 */
 	public static abstract class BaseFilter implements CharParser {
 		CharParser[] originalConds;
-		CharParser[] matchingConds;
-		int matchingCondsSize;
+		/** this filter's own conditions, if the filter was created with 'doCopyConds' these are copies of 'originalConds' created when first accessed
+		 * (null until then), 'originalConds' are shared by all copies of the filter */
+		CharParser[] ownConds;
+		/** bit set of the 'ownConds' which haven't failed since the last reset, bit 'i' is condition 'i', only used if there are at most 64 conditions */
+		long matchingConds;
+		/** the 'matchingConds' bit set for filters with more than 64 conditions, null otherwise */
+		long[] matchingCondWords;
+		/** incremented by each {@link #reset()}, see {@link #condition(int)} */
+		int generation;
+		/** the generation each of 'ownConds' was last reset in, conditions from an older generation are reset when next accessed */
+		int[] condGenerations;
 		boolean anyComplete = false;
 		boolean failed = false;
 		final boolean canReuse;
@@ -52,22 +60,16 @@ public class CharCompoundConditions {
 		@SafeVarargs
 		public BaseFilter(String name, boolean doCopyConds, CharParser... conds) {
 			int condsCnt = conds.length;
-			var copyConds = new CharParser[condsCnt];
-
-			if(doCopyConds) {
-				for(int i = 0; i < condsCnt; i++) {
-					copyConds[i] = conds[i].copy();
-				}
-			}
-			else {
-		        System.arraycopy(conds, 0, copyConds, 0, condsCnt);
-			}
+			// copies are created lazily, see condition()
+			var copyConds = doCopyConds ? new CharParser[condsCnt] : conds.clone();
 
 			this.originalConds = conds;
-			this.matchingConds = copyConds;
-	        this.matchingCondsSize = condsCnt;
+			this.ownConds = copyConds;
+			this.matchingCondWords = condsCnt > 64 ? new long[(condsCnt + 63) >>> 6] : null;
+			setAllMatching();
+	        this.condGenerations = new int[condsCnt];
 	        this.anyComplete = false;
-	        this.canReuse = canRecycleAll(copyConds);
+	        this.canReuse = canRecycleAll(conds);
 			this.name = name;
 		}
 
@@ -117,51 +119,98 @@ public class CharCompoundConditions {
 
 		// package-private
 		void reset() {
-			var origCnt = originalConds.length;
-			ArrayManager.clearAndAddAll(matchingConds, originalConds, 0, origCnt);
-			matchingCondsSize = origCnt;
+			// this filter's own conditions (rather than the original conditions, which may be shared by other copies of this filter)
+			// are reset lazily the next time they are accessed
+			generation++;
+			setAllMatching();
 			anyComplete = false;
 			failed = false;
 			coords = new TextFragmentRefImplMut();
 			acceptedCount = 0;
+		}
+
 
-			for(int i = 0; i < origCnt; i++) {
-				matchingConds[i].copyOrReuse();
+		private void setAllMatching() {
+			int condsCnt = this.ownConds.length;
+			var words = this.matchingCondWords;
+			if(words == null) {
+				this.matchingConds = condsCnt == 64 ? -1L : (1L << condsCnt) - 1;
+			}
+			else {
+				int last = words.length - 1;
+				for(int w = 0; w < last; w++) {
+					words[w] = -1L;
+				}
+				words[last] = -1L >>> ((words.length << 6) - condsCnt);
 			}
 		}
 
 
-		/** Remove {@code matches} who's {@link CharParser#acceptNext(char, TextParser)} method return false for {@code ch}
+		/** Remove the conditions whose {@link CharParser#acceptNext(char, TextParser)} method returns false for {@code ch} from the matching conditions
 		 * @return 0 if no match, 1 if match found, 2 if match completed
 		 */
 		private byte updateMatches(char ch, TextParser buf) {
-			var matches = this.matchingConds;
-			int size = this.matchingCondsSize;
-			byte found = 0;
-			// reverse iterate through the bag so we don't have to adjust the loop variable when we remove elements
-			for(int i = size - 1; i > -1; i--) {
-				CharParser cond = matches[i];
-				if(!cond.isFailed()) {
-					if(!cond.acceptNext(ch, buf)) {
-						ArrayManager.removeUnordered(matches, size, i);
-						size--;
-					}
-					else {
-						found = 1;
-						if(cond.isComplete()) {
-							found = 2;
-						}
+			var words = this.matchingCondWords;
+			if(words == null) {
+				long live = this.matchingConds;
+				byte found = 0;
+				for(long bits = live; bits != 0; bits &= bits - 1) {
+					int i = Long.numberOfTrailingZeros(bits);
+					byte res = acceptNextMatching(i, ch, buf);
+					if(res == 0) {
+						live &= ~(1L << i);
 					}
+					found = (byte)Math.max(found, res);
 				}
-				else {
-					ArrayManager.removeUnordered(matches, size, i);
-					size--;
+				this.matchingConds = live;
+				return found;
+			}
+
+			byte found = 0;
+			for(int w = 0, size = words.length; w < size; w++) {
+				long live = words[w];
+				for(long bits = live; bits != 0; bits &= bits - 1) {
+					int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+					byte res = acceptNextMatching(i, ch, buf);
+					if(res == 0) {
+						live &= ~(1L << i);
+					}
+					found = (byte)Math.max(found, res);
 				}
+				words[w] = live;
 			}
-			this.matchingCondsSize = size;
 			return found;
 		}
 
+
+		/** Pass a char to one of the matching conditions
+		 * @return 0 if the condition failed, 1 if it accepted the char, 2 if it accepted the char and completed
+		 */
+		private byte acceptNextMatching(int idx, char ch, TextParser buf) {
+			CharParser cond = condition(idx);
+			if(cond.isFailed() || !cond.acceptNext(ch, buf)) {
+				return 0;
+			}
+			return (byte)(cond.isComplete() ? 2 : 1);
+		}
+
+
+		/**
+		 * @return the condition at {@code idx} in 'ownConds', copied from 'originalConds' if this is the first access or reset first if it hasn't been reset since the last {@link #reset()}
+		 */
+		final CharParser condition(int idx) {
+			var cond = this.ownConds[idx];
+			if(cond == null) {
+				cond = this.ownConds[idx] = this.originalConds[idx].copy();
+				this.condGenerations[idx] = this.generation;
+			}
+			else if(this.condGenerations[idx] != this.generation) {
+				cond = this.ownConds[idx] = cond.copyOrReuse();
+				this.condGenerations[idx] = this.generation;
+			}
+			return cond;
+		}
+
 	}
 
 
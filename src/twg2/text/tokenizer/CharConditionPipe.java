@@ -3,8 +3,6 @@ package twg2.text.tokenizer;
 import java.util.Arrays;
 import java.util.Collection;
 
-import twg2.arrays.ArrayManager;
-import twg2.arrays.ArrayUtil;
 import twg2.collections.builder.ListBuilder;
 import twg2.parser.condition.ParserCondition;
 import twg2.parser.condition.text.CharParser;
@@ -88,11 +86,21 @@ public class CharConditionPipe {
 	 */
 	public static abstract class BasePipe<T extends ParserCondition> implements CharParser {
 		final boolean canReuse;
-		/** FIFO list of conditions in this pipe.
+		/** FIFO list of condition definitions in this pipe, shared by all copies of the pipe.
 		 * The first sub-array conditions are required.
-		 * Subsequent sub-arrays are optional
+		 * Subsequent sub-arrays are optional.
+		 * The definitions are only used to {@code copy()} the pipe's own conditions (see {@link #condition(int, int)}) and are never passed any chars by a copy
 		 */
 		final ParserCondition[][] conditionSets;
+		/** this pipe's own conditions (indexed like 'conditionSets'), null until first accessed via {@link #condition(int, int)}.
+		 * Each sub-array has the same runtime component type as its definitions array (usually {@code CharParser[]}) so that storing a condition
+		 * type checks against the same interface the conditions are cast to when they are used */
+		final ParserCondition[][] conditions;
+		/** the current generation of each condition set, see {@link #condition(int, int)} */
+		final int[] setGenerations;
+		/** the generation each condition was last reset in, a condition whose generation doesn't match its set's generation is stale
+		 * and is reset the next time it is accessed */
+		final int[][] conditionGenerations;
 		int curSetIndex;
 		int curCondIndex;
 		T curCondition; // the current condition
@@ -107,49 +115,50 @@ public class CharConditionPipe {
 		}
 
 
-		@SuppressWarnings("unchecked")
 		public BasePipe(String name, boolean copy, T firstFilter, ParserCondition[] subsequentFilters) {
-			ParserCondition[] condSet0 = new ParserCondition[subsequentFilters.length + 1];
-			condSet0[0] = firstFilter;
-			System.arraycopy(subsequentFilters, 0, condSet0, 1, subsequentFilters.length);
-			copyConditionsInPlace(copy, condSet0);
-			firstFilter = (T)condSet0[0]; // read back from array after copy
-
-			this.conditionSets = new ParserCondition[][] { condSet0 };
-			this.curCondition = firstFilter;
-			this.canReuse = CharCompoundConditions.canRecycleAll(condSet0);
-			this.name = name;
+			this(name, copy, new ParserCondition[][] { prepend(firstFilter, subsequentFilters) });
 		}
 
 
-		@SuppressWarnings("unchecked")
 		public BasePipe(String name, boolean copy, Collection<T> filters) {
-			ParserCondition[] condSet0 = copyConditionsInPlace(copy, filters.toArray(new ParserCondition[0]));
-
-			this.conditionSets = new ParserCondition[][] { condSet0 };
-			this.curCondition = (T)condSet0[0];
-			this.canReuse = CharCompoundConditions.canRecycleAll(condSet0);
-			this.name = name;
+			this(name, copy, new ParserCondition[][] { filters.toArray(new ParserCondition[0]) });
 		}
 
 
+		/**
+		 * @param copy true to copy each of the {@code filterSets} conditions (lazily, when first accessed) and use {@code filterSets} as shared definitions,
+		 * false to use the {@code filterSets} conditions as this pipe's own conditions.
+		 * The arrays are copied, so changes the caller makes to {@code filterSets} afterward don't affect this pipe or its copies
+		 */
 		protected BasePipe(String name, boolean copy, ParserCondition[][] filterSets) {
 			int filterSetsCnt = filterSets.length;
-			var condCopies = new ParserCondition[filterSetsCnt][];
 			boolean reusable = true;
 			for(int i = 0; i < filterSetsCnt; i++) {
-				var filters = filterSets[i];
-				var filtersCopy = copyConditionsInPlace(copy, Arrays.copyOf(filters, filters.length));
-				condCopies[i] = filtersCopy;
-				reusable &= CharCompoundConditions.canRecycleAll(filtersCopy);
+				reusable &= CharCompoundConditions.canRecycleAll(filterSets[i]);
 			}
-			@SuppressWarnings("unchecked")
-			var curCond = filterSetsCnt > 0 ? (T)condCopies[0][0] : null;
 
-			this.conditionSets = condCopies;
-			this.curCondition = curCond;
+			var defs = cloneConditionSets(filterSets);
+			this.conditionSets = defs;
+			this.conditions = copy ? newConditionSets(defs) : cloneConditionSets(defs);
+			this.setGenerations = new int[filterSetsCnt];
+			this.conditionGenerations = newGenerations(filterSets);
 			this.canReuse = reusable;
 			this.name = name;
+			this.curCondition = filterSetsCnt > 0 && filterSets[0].length > 0 ? condition(0, 0) : null;
+		}
+
+
+		/** Create a copy of a pipe which shares the pipe's definitions (condition sets, name, etc.) and has its own state,
+		 * the copy's conditions are copied from the definitions when first accessed
+		 */
+		protected BasePipe(BasePipe<T> src) {
+			this.conditionSets = src.conditionSets;
+			this.conditions = newConditionSets(src.conditionSets);
+			this.setGenerations = new int[src.setGenerations.length];
+			this.conditionGenerations = newGenerations(src.conditionSets);
+			this.canReuse = src.canReuse;
+			this.name = src.name;
+			this.curCondition = this.conditionSets.length > 0 && this.conditionSets[0].length > 0 ? condition(0, 0) : null;
 		}
 
 
@@ -189,17 +198,48 @@ public class CharConditionPipe {
 			curSetIndex = 0;
 			anyComplete = false;
 			failed = false;
+			// conditions are reset lazily when next accessed, so only the conditions which are used again are reset
 			for(int i = 0, size = conditionSets.length; i < size; i++) {
-				var condSet = conditionSets[i];
-				for(int ii = 0, sizeI = condSet.length; ii < sizeI; ii++) {
-					@SuppressWarnings("unchecked")
-					T condCopy = (T)condSet[ii].copyOrReuse();
-					condSet[ii] = condCopy;
-				}
+				resetConditionSet(i);
+			}
+			curCondition = conditionSets.length > 0 && conditionSets[0].length > 0 ? condition(0, 0) : null;
+		}
+
+
+		/**
+		 * @return this pipe's condition at {@code condIdx} in condition set {@code setIdx}, copied from its definition if this is the first access
+		 * or reset first if it is stale
+		 */
+		final T condition(int setIdx, int condIdx) {
+			var conds = this.conditions[setIdx];
+			var condGenerations = this.conditionGenerations[setIdx];
+			var cond = conds[condIdx];
+			int setGeneration = this.setGenerations[setIdx];
+			if(cond == null) {
+				cond = conds[condIdx] = this.conditionSets[setIdx][condIdx].copy();
+				condGenerations[condIdx] = setGeneration;
+			}
+			else if(condGenerations[condIdx] != setGeneration) {
+				cond = conds[condIdx] = cond.copyOrReuse();
+				condGenerations[condIdx] = setGeneration;
 			}
 			@SuppressWarnings("unchecked")
-			var curCond = conditionSets.length > 0 && conditionSets[0].length > 0 ? (T)conditionSets[0][0] : null;
-			curCondition = curCond;
+			var res = (T)cond;
+			return res;
+		}
+
+
+		/** Mark a condition stale, it is reset the next time it is accessed via {@link #condition(int, int)}
+		 */
+		final void resetCondition(int setIdx, int condIdx) {
+			this.conditionGenerations[setIdx][condIdx] = this.setGenerations[setIdx] - 1;
+		}
+
+
+		/** Mark all of the conditions in a set stale in constant time, each is reset the next time it is accessed via {@link #condition(int, int)}
+		 */
+		final void resetConditionSet(int setIdx) {
+			this.setGenerations[setIdx]++;
 		}
 
 
@@ -209,6 +249,46 @@ public class CharConditionPipe {
 		}
 
 
+		private static ParserCondition[][] newConditionSets(ParserCondition[][] defs) {
+			var res = cloneConditionSets(defs);
+			for(var conds : res) {
+				Arrays.fill(conds, null);
+			}
+			return res;
+		}
+
+
+		private static ParserCondition[][] cloneConditionSets(ParserCondition[][] defs) {
+			var res = new ParserCondition[defs.length][];
+			for(int i = 0; i < defs.length; i++) {
+				res[i] = defs[i].clone(); // keeps the definitions' array type, see 'conditions'
+			}
+			return res;
+		}
+
+
+		private static int[][] newGenerations(ParserCondition[][] defs) {
+			var res = new int[defs.length][];
+			for(int i = 0; i < defs.length; i++) {
+				res[i] = new int[defs[i].length];
+			}
+			return res;
+		}
+
+
+		private static ParserCondition[] prepend(ParserCondition first, ParserCondition[] rest) {
+			var res = new ParserCondition[rest.length + 1];
+			res[0] = first;
+			System.arraycopy(rest, 0, res, 1, rest.length);
+			return res;
+		}
+
+
+		/**
+		 * @deprecated pipes copy their conditions lazily from shared definitions (see {@link #condition(int, int)}), this is no longer used
+		 * and will be removed, copy the conditions with {@link ParserCondition#copy()} instead
+		 */
+		@Deprecated
 		public static ParserCondition[] copyConditionsInPlace(boolean copy, ParserCondition[] conds) {
 			if(copy) {
 				for(int i = 0, size = conds.length; i < size; i++) {
@@ -275,6 +355,12 @@ public class CharConditionPipe {
 		}
 
 
+		protected BasePipeMatchable(BasePipeMatchable<T> src) {
+			super(src);
+			this.firstCharFilter = src.firstCharFilter;
+		}
+
+
 		private final void initFirstChars(CharParserMatchable firstFilter) {
 			this.firstCharFilter = firstFilter.getFirstCharMatcher();
 		}
@@ -311,9 +397,22 @@ public class CharConditionPipe {
 
 	/** Accepts multiple sets of {@link CharParser}, the first set is required, all remaining sets are optional.
 	 * Parsers are extracted from the sets via the virtual sub-class overridden {@link #nextCondition()} method.
+	 * With {@link #setRecordSpans(boolean)} enabled, the span of each pass through a condition set (for example each element and separator of a list)
+	 * is recorded while parsing.
 	 */
-	public static abstract class AcceptMultiple<S extends CharParser> extends BasePipeMatchable<S> {
+	public static abstract class AcceptMultiple<S extends CharParser> extends BasePipeMatchable<S> implements SpanCharParser {
 		boolean firstConditionSetOptional = false;
+		/** the number of upcoming chars which the current condition already accepted while peeking ahead, see {@link #peekOptionalConditionSet(TextParser)} */
+		int peekedCount;
+		/** bit set of the optional conditions which haven't failed while peeking ahead, reused by each peek */
+		long[] peekLive;
+		/** the span of each completed condition set pass, null unless span recording is enabled */
+		SpanBuffer spans;
+		/** the current condition set pass, 'spanStart' is -1 until a condition in the pass completes */
+		int spanSetIdx;
+		int spanStart = -1;
+		int spanEnd;
+
 
 		public AcceptMultiple(String name, boolean copy, CharParserMatchable filter, Collection<S> filters) {
 			super(name, copy, filter, filters);
@@ -325,6 +424,13 @@ public class CharConditionPipe {
 		}
 
 
+		protected AcceptMultiple(AcceptMultiple<S> src) {
+			super(src);
+			this.firstConditionSetOptional = src.firstConditionSetOptional;
+			setRecordSpans(src.spans != null);
+		}
+
+
 		/** Logic for getting the next condition based on the current set and condition indices
 		 * @return the next condition to parse or null if there are no remaining conditions
 		 */
@@ -338,15 +444,39 @@ public class CharConditionPipe {
 				return false;
 			}
 
-			boolean res = super.curCondition.acceptNext(ch, buf);
+			boolean res;
+			// the current condition already accepted this char while peeking ahead
+			if(this.peekedCount > 0) {
+				this.peekedCount--;
+				if(this.peekedCount > 0) {
+					return true;
+				}
+				res = true;
+			}
+			else {
+				res = super.curCondition.acceptNext(ch, buf);
+			}
+
 			// when complete
 			if(super.curCondition.isComplete()) {
 				TextFragmentRef curCondCoords = super.curCondition.getMatchedTextCoords();
 				super.coords = super.coords == null ? TextFragmentRef.copyMutable(curCondCoords) : TextFragmentRef.span(super.coords, curCondCoords, super.coords);
+				if(this.spans != null) {
+					if(this.spanStart < 0) {
+						this.spanSetIdx = super.curSetIndex;
+						this.spanStart = curCondCoords.getOffsetStart();
+					}
+					this.spanEnd = curCondCoords.getOffsetEnd();
+				}
 
 				// get the next condition, or null
 				super.curCondition = nextCondition();
 
+				// a set pass ends when the next condition is the first of a set (the next set or the same set again) or there are no conditions left
+				if(this.spans != null && (super.curCondition == null || super.curCondIndex == 0)) {
+					endSpan();
+				}
+
 				// required parser done, optional parsers next
 				if(super.curSetIndex > 0 || this.firstConditionSetOptional) {
 					if(super.curCondition != null && buf.hasNext()) {
@@ -357,18 +487,17 @@ public class CharConditionPipe {
 						if(matchIdx > -1) {
 							super.anyComplete = false;
 
-							// reset the matched condition - since it was used to peek ahead
-							var condSet = super.conditionSets[super.curSetIndex];
-							@SuppressWarnings("unchecked")
-							var condCopy = (S)condSet[matchIdx].copyOrReuse();
-							condSet[matchIdx] = condCopy;
-							// set the current condition and index to the condition which fully matched or matched until input ran out
-							super.curCondition = condCopy;
+							// set the current condition and index to the condition which fully matched or matched until input ran out,
+							// it keeps the state it reached while peeking ahead and skips the peeked chars as they are passed to this pipe
+							super.curCondition = super.condition(super.curSetIndex, matchIdx);
 							super.curCondIndex = matchIdx;
 						}
 						// if the optional condition failed
 						else {
 							super.anyComplete = true;
+							if(this.spans != null) {
+								endSpan();
+							}
 						}
 
 						return res;
@@ -377,6 +506,9 @@ public class CharConditionPipe {
 					else {
 						super.anyComplete = true;
 						super.curCondition = null;
+						if(this.spans != null) {
+							endSpan();
+						}
 					}
 				}
 			}
@@ -388,9 +520,8 @@ public class CharConditionPipe {
 				}
 				else {
 					// reset the current optional condition - since it failed reading the current character
-					@SuppressWarnings("unchecked")
-					S condCopy = super.curCondition = (S)super.curCondition.copyOrReuse();
-					super.conditionSets[super.curSetIndex][super.curCondIndex] = condCopy;
+					super.resetCondition(super.curSetIndex, super.curCondIndex);
+					super.curCondition = super.condition(super.curSetIndex, super.curCondIndex);
 				}
 			}
 
@@ -400,64 +531,120 @@ public class CharConditionPipe {
 
 		/** Peek ahead to try to match the parser input to any of the current set of conditions.
 		 * Rewind the parser once all conditions fail, one condition completes, or input runs out.
+		 * The matching condition is left in the state it reached and {@link #peekedCount} is set to the number of chars it accepted,
+		 * the other conditions are reset.
 		 * @return the first condition index (by 'conditionSets[]' sub-index) which matches the input {@code buf} until {@link #isComplete()} or has not failed when input runs out.
 		 */
 		public int peekOptionalConditionSet(TextParser buf) {
+			int setIdx = super.curSetIndex;
+			int size = super.conditionSets[setIdx].length;
+			int words = (size + 63) >>> 6;
+			var live = this.peekLive;
+			if(live == null || live.length < words) {
+				live = this.peekLive = new long[words];
+			}
+			for(int w = 0; w < words; w++) {
+				live[w] = w < words - 1 ? -1L : -1L >>> ((words << 6) - size);
+			}
+			int liveCnt = size;
+			int matchIdx = -1;
 			int cnt = 0;
-			var condSet = super.conditionSets[super.curSetIndex];
-			int size = condSet.length;
-			int matchesCnt = size;
-			S matchCompleted = null;
-			// copy the current condition set array to use as a temp bag of matching conditions
-			var matches = new ParserCondition[size];
-			System.arraycopy(condSet, 0, matches, 0, size);
 
 			outer:
-			while(buf.hasNext() && matchesCnt > 0) {
+			while(buf.hasNext() && liveCnt > 0) {
 				char nextCh = buf.nextChar();
+				cnt++;
 				// iterate through optional conditions that still match, eliminate conditions that don't match this char
-				for(int i = 0; i < matchesCnt; i++) {
-					@SuppressWarnings("unchecked")
-					var cond = (S)matches[i];
-					var res = cond.acceptNext(nextCh, buf);
-					if(!res) {
-						ArrayManager.removeUnordered(matches, size, i);
-						matchesCnt--;
-						i--;
-					}
-					else if(cond.isComplete()) {
-						matchCompleted = cond;
-						cnt++;
-						break outer;
+				for(int w = 0; w < words; w++) {
+					for(long bits = live[w]; bits != 0; bits &= bits - 1) {
+						int i = (w << 6) + Long.numberOfTrailingZeros(bits);
+						var cond = super.condition(setIdx, i);
+						if(!cond.acceptNext(nextCh, buf)) {
+							live[w] &= ~(1L << i);
+							liveCnt--;
+						}
+						else if(cond.isComplete()) {
+							matchIdx = i;
+							break outer;
+						}
 					}
 				}
-				cnt++;
 			}
 
 			if(cnt > 0) {
 				buf.unread(cnt);
 			}
 
-			// if there are conditions still not finished (i.e. the text parser ran out of input) then use one of those as the matches
-			int matchIdx = matchCompleted != null ? ArrayUtil.indexOf(condSet, matchCompleted) : (matchesCnt > 0 ? ArrayUtil.indexOf(condSet, matches[0]) : -1);
+			// if there are conditions still not finished (i.e. the text parser ran out of input) then use the first of those as the match
+			if(matchIdx < 0 && liveCnt > 0) {
+				for(int w = 0; matchIdx < 0; w++) {
+					if(live[w] != 0) {
+						matchIdx = (w << 6) + Long.numberOfTrailingZeros(live[w]);
+					}
+				}
+			}
 
 			// reset condition set after testing (except for the match if one was found)
 			for(int i = 0; i < size; i++) {
 				if(i != matchIdx) {
-					condSet[i] = condSet[i].copyOrReuse();
+					super.resetCondition(setIdx, i);
 				}
 			}
+			this.peekedCount = matchIdx > -1 ? cnt : 0;
 
 			// return the matching condition index (condition might have completed or not)
 			return matchIdx;
 		}
 
+
+		/** Enable or disable recording the span of each pass through a condition set, for example each element and separator matched by a {@link RepeatableSeparator}.
+		 * Copies of this pipe record spans if this pipe does.
+		 * @param recordSpans true to record spans, false (the default) to only track the overall {@link #getMatchedTextCoords()}
+		 * @return this pipe
+		 */
+		public AcceptMultiple<S> setRecordSpans(boolean recordSpans) {
+			this.spans = recordSpans ? (this.spans != null ? this.spans : new SpanBuffer()) : null;
+			return this;
+		}
+
+
+		/**
+		 * @return the spans recorded so far, each with the index of the condition set that matched it, or null if span recording isn't enabled
+		 */
+		@Override
+		public SpanBuffer getSpans() {
+			return this.spans;
+		}
+
+
+		private void endSpan() {
+			if(this.spanStart > -1) {
+				this.spans.add(this.spanSetIdx, this.spanStart, this.spanEnd - this.spanStart);
+				this.spanStart = -1;
+			}
+		}
+
+
+		@Override
+		void reset() {
+			super.reset();
+			this.peekedCount = 0;
+			if(this.spans != null) {
+				this.spans.clear();
+				this.spanStart = -1;
+			}
+		}
+
 	}
 
 
 
 
-	public static class OptionalSuffix<S extends CharParser> extends AcceptMultiple<S> {
+	/** Accepts a required set of conditions followed by optional sets of conditions.<br>
+	 * A single set pipe whose last condition is a {@link CharConditions.End} (i.e. a start/end marker pair) is a {@link SkipAheadCharParser},
+	 * once its start conditions are complete, only the end chars can change its state
+	 */
+	public static class OptionalSuffix<S extends CharParser> extends AcceptMultiple<S> implements SkipAheadCharParser {
 
 		public OptionalSuffix(String name, boolean copy, CharParserMatchable filter, Collection<S> filters) {
 			super(name, copy, filter, filters);
@@ -469,21 +656,22 @@ public class CharConditionPipe {
 		}
 
 
+		protected OptionalSuffix(OptionalSuffix<S> src) {
+			super(src);
+		}
+
+
 		@Override
 		public S nextCondition() {
 			var curCondSet = super.conditionSets[super.curSetIndex];
 			// reset the current condition
-			@SuppressWarnings("unchecked")
-			S condCopy = (S)super.curCondition.copyOrReuse();
-			curCondSet[super.curCondIndex] = condCopy;
+			super.resetCondition(super.curSetIndex, super.curCondIndex);
 
 			super.curCondIndex++;
 
 			// advance to the next condition in the current set
 			if(super.curCondIndex < curCondSet.length) {
-				@SuppressWarnings("unchecked")
-				var curCond = (S)curCondSet[super.curCondIndex];
-				return curCond;
+				return super.condition(super.curSetIndex, super.curCondIndex);
 			}
 			// advance to the next optional set of conditions
 			else if(super.curSetIndex < super.conditionSets.length - 1) {
@@ -491,9 +679,7 @@ public class CharConditionPipe {
 				super.curSetIndex++;
 				super.curCondIndex = 0;
 				curCondSet = super.conditionSets[super.curSetIndex];
-				@SuppressWarnings("unchecked")
-				var curCond = curCondSet.length > 0 ? (S)curCondSet[super.curCondIndex] : null;
-				return curCond;
+				return curCondSet.length > 0 ? super.condition(super.curSetIndex, super.curCondIndex) : null;
 			}
 			// or there are no conditions left (this precondition filter is complete)
 			else {
@@ -503,9 +689,20 @@ public class CharConditionPipe {
 		}
 
 
+		@Override
+		public char[] getSkipUntilChars() {
+			var condSets = super.conditionSets;
+			int curCondIdx = super.curCondIndex;
+			if(condSets.length == 1 && curCondIdx > 0 && curCondIdx == condSets[0].length - 1 && super.curCondition instanceof CharConditions.End && !super.failed) {
+				return ((CharConditions.End)super.curCondition).getFirstChars();
+			}
+			return null;
+		}
+
+
 		@Override
 		public OptionalSuffix<S> copy() {
-			return new OptionalSuffix<S>(name, true, super.conditionSets);
+			return new OptionalSuffix<S>(this);
 		}
 
 
@@ -538,6 +735,11 @@ public class CharConditionPipe {
 		}
 
 
+		protected RepeatableSeparator(RepeatableSeparator<S> src) {
+			super(src);
+		}
+
+
 		private final void setup() {
 			if(super.conditionSets.length > 2) {
 				// technically this allows for 1 element repeating parsers
@@ -550,17 +752,13 @@ public class CharConditionPipe {
 		public S nextCondition() {
 			var curCondSet = super.conditionSets[super.curSetIndex];
 			// reset the current condition
-			@SuppressWarnings("unchecked")
-			S condCopy = (S)super.curCondition.copyOrReuse();
-			curCondSet[super.curCondIndex] = condCopy;
+			super.resetCondition(super.curSetIndex, super.curCondIndex);
 
 			super.curCondIndex++;
 
 			// advance to the next condition in the current set
 			if(super.curCondIndex < curCondSet.length) {
-				@SuppressWarnings("unchecked")
-				var retCond = (S)curCondSet[super.curCondIndex];
-				return retCond;
+				return super.condition(super.curSetIndex, super.curCondIndex);
 			}
 			// advance to the separator parser or back to the element parser
 			else {
@@ -577,23 +775,16 @@ public class CharConditionPipe {
 
 				super.curCondIndex = 0;
 				curCondSet = super.conditionSets[super.curSetIndex];
-				for(int i = 0, size = curCondSet.length; i < size; i++) {
-					@SuppressWarnings("unchecked")
-					S curCond = (S)curCondSet[i].copyOrReuse();
-					curCondSet[i] = curCond;
-				}
-				@SuppressWarnings("unchecked")
-				var retCond = curCondSet.length > 0 ? (S)curCondSet[super.curCondIndex] : null;
-				return retCond;
+				// reset the next set lazily, only the conditions which are accessed again are reset
+				super.resetConditionSet(super.curSetIndex);
+				return curCondSet.length > 0 ? super.condition(super.curSetIndex, super.curCondIndex) : null;
 			}
 		}
 
 
 		@Override
 		public RepeatableSeparator<S> copy() {
-			var copy = new RepeatableSeparator<S>(name, true, super.conditionSets);
-			copy.firstConditionSetOptional = super.firstConditionSetOptional;
-			return copy;
+			return new RepeatableSeparator<S>(this);
 		}
 
 
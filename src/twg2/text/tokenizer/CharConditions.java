@@ -12,7 +12,6 @@ import twg2.parser.textFragment.TextFragmentRef;
 import twg2.parser.textFragment.TextFragmentRefImplMut;
 import twg2.parser.textParser.TextParser;
 import twg2.parser.textParserUtils.ReadIsMatching;
-import twg2.ranges.CharSearchSet;
 
 /**
  * @author TeamworkGuy2
@@ -145,27 +144,8 @@ public class CharConditions {
 			if(firstCharMatcher != null) {
 				this.firstCharMatcher = firstCharMatcher;
 			}
-			// performance optimization for single char matchers
-			else if(firstMatchChars.length == 1) {
-				var ch1 = firstMatchChars[0];
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					return ch1 == ch;
-				};
-			}
-			else if(firstMatchChars.length == 2) {
-				var ch1 = firstMatchChars[0];
-				var ch2 = firstMatchChars[1];
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					return ch1 == ch || ch2 == ch;
-				};
-			}
 			else {
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					for(int i = 0, size = firstMatchChars.length; i < size; i++) {
-						if(firstMatchChars[i] == ch) { return true; }
-					}
-					return false;
-				};
+				this.firstCharMatcher = CharBitSet.matcherFor(firstMatchChars);
 			}
 		}
 
@@ -199,7 +179,12 @@ public class CharConditions {
 	public static class Literal extends BaseCharParserMatchable {
 
 		public Literal(String name, CharList chars, Inclusion includeCondMatchInRes) {
-			super(name, chars::contains, null, chars.toArray(), includeCondMatchInRes, null);
+			this(name, CharClass.of(chars), includeCondMatchInRes);
+		}
+
+
+		public Literal(String name, CharClass chars, Inclusion includeCondMatchInRes) {
+			super(name, chars, chars, chars.toCharArray(), includeCondMatchInRes, null);
 		}
 
 
@@ -245,13 +230,18 @@ public class CharConditions {
 	 * @author TeamworkGuy2
 	 * @since 2015-12-13
 	 */
-	public static class ContainsFirstSpecial extends BaseCharParserMatchable {
+	public static class ContainsFirstSpecial extends BaseCharParserMatchable implements RunCharParser {
 
 		public ContainsFirstSpecial(String name, CharPredicate charMatcher, char[] firstMatchChars, Inclusion includeCondMatchInRes, Object toStringSrc) {
 			super(name, charMatcher, null, firstMatchChars, includeCondMatchInRes, toStringSrc);
 		}
 
 
+		public ContainsFirstSpecial(String name, CharClass firstChars, CharClass chars, Inclusion includeCondMatchInRes) {
+			super(name, chars, firstChars, firstChars.toCharArray(), includeCondMatchInRes, firstChars.toString() + chars.toString() + "*");
+		}
+
+
 		public ContainsFirstSpecial(String name, CharPredicate charMatcher, CharParserPredicate firstCharMatcher, char[] firstMatchChars, Inclusion includeCondMatchInRes, Object toStringSrc) {
 			super(name, charMatcher, firstCharMatcher, firstMatchChars, includeCondMatchInRes, toStringSrc);
 		}
@@ -281,6 +271,22 @@ public class CharConditions {
 		}
 
 
+		@Override
+		public CharPredicate getRunChars() {
+			return super.matchCount > 0 && !super.anyComplete ? super.charMatcher : null;
+		}
+
+
+		@Override
+		public void acceptRun(int count, TextParser buf) {
+			super.acceptedCount += count;
+			super.matchCount += count;
+			// the run chars are the condition's chars, so the run ended at the first non-matching char
+			super.anyComplete = true;
+			super.coords.setEnd(buf);
+		}
+
+
 		@Override
 		public ContainsFirstSpecial copy() {
 			return new ContainsFirstSpecial(super.name, super.charMatcher, super.firstCharMatcher, super.firstMatchChars, super.includeMatchInRes, super.toStringSrc);
@@ -298,7 +304,12 @@ public class CharConditions {
 	public static class Contains extends ContainsFirstSpecial {
 
 		public Contains(String name, CharList chars, Inclusion includeCondMatchInRes) {
-			super(name, chars::contains, null, chars.toArray(), includeCondMatchInRes, null);
+			this(name, CharClass.of(chars), includeCondMatchInRes);
+		}
+
+
+		public Contains(String name, CharClass chars, Inclusion includeCondMatchInRes) {
+			super(name, chars, chars, chars.toCharArray(), includeCondMatchInRes, null);
 		}
 
 
@@ -324,7 +335,12 @@ public class CharConditions {
 	public static class End extends BaseCharParserMatchable {
 
 		public End(String name, CharList chars, Inclusion includeCondMatchInRes) {
-			super(name, chars::contains, null, chars.toArray(), includeCondMatchInRes, null);
+			this(name, CharClass.of(chars), includeCondMatchInRes);
+		}
+
+
+		public End(String name, CharClass chars, Inclusion includeCondMatchInRes) {
+			super(name, chars, chars, chars.toCharArray(), includeCondMatchInRes, null);
 		}
 
 
@@ -368,7 +384,12 @@ public class CharConditions {
 
 
 		public EndNotPrecededBy(String name, CharList chars, Inclusion includeCondMatchInRes, CharListReadOnly notPrecededBy) {
-			super(name, chars::contains, null, chars.toArray(), includeCondMatchInRes, null);
+			this(name, CharClass.of(chars), includeCondMatchInRes, notPrecededBy);
+		}
+
+
+		public EndNotPrecededBy(String name, CharClass chars, Inclusion includeCondMatchInRes, CharListReadOnly notPrecededBy) {
+			super(name, chars, chars, chars.toCharArray(), includeCondMatchInRes, null);
 			this.notPreceding = notPrecededBy;
 		}
 
@@ -429,15 +450,143 @@ public class CharConditions {
 
 
 
+	/** Matches balanced open and close delimiters (e.g. '(' and ')') using a depth counter.<br>
+	 * As a compound parser each nested level is reported as its own token (see {@link NestedCharParser}) so one parser handles
+	 * any nesting depth, as a non-compound parser the outermost level is matched as a single token.
+	 * The level start coordinates are kept in an array which is reused when the parser is recycled.
+	 * Other kinds of delimiters are separate factories, each with its own depth counter.
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	public static class Balanced extends BaseCharParserMatchable implements NestedCharParser, SkipAheadCharParser {
+		final char open;
+		final char close;
+		final char[] openClose;
+		int depth;
+		boolean levelComplete;
+		/** the coordinates of each open inner level, 'levelCoords[0]' is the level inside the outermost level */
+		TextFragmentRefImplMut[] levelCoords;
+
+
+		public Balanced(String name, char open, char close) {
+			super(name, (char ch) -> ch == close, null, new char[] { open }, Inclusion.INCLUDE, "" + open + "..." + close);
+			if(open == close) {
+				throw new IllegalArgumentException("open and close delimiters must be different: '" + open + "'");
+			}
+			this.open = open;
+			this.close = close;
+			this.openClose = new char[] { open, close };
+			this.levelCoords = new TextFragmentRefImplMut[4];
+		}
+
+
+		@Override
+		public boolean acceptNext(char ch, TextParser buf) {
+			if(super.anyComplete || super.failed) {
+				super.failed = true;
+				return false;
+			}
+			this.levelComplete = false;
+
+			int depth = this.depth;
+			if(depth == 0) {
+				if(ch != open) {
+					super.failed = true;
+					return false;
+				}
+				super.coords.setStart(buf);
+				this.depth = 1;
+			}
+			else if(ch == open) {
+				var levels = this.levelCoords;
+				if(depth - 1 == levels.length) {
+					levels = this.levelCoords = Arrays.copyOf(levels, levels.length * 2);
+				}
+				var level = levels[depth - 1];
+				if(level == null) {
+					level = levels[depth - 1] = new TextFragmentRefImplMut();
+				}
+				level.setStart(buf);
+				this.depth = depth + 1;
+			}
+			else if(ch == close) {
+				this.depth = --depth;
+				if(depth == 0) {
+					super.anyComplete = true;
+					super.coords.setEnd(buf);
+				}
+				else {
+					this.levelCoords[depth - 1].setEnd(buf);
+					this.levelComplete = true;
+				}
+			}
+			super.acceptedCount++;
+			return true;
+		}
+
+
+		@Override
+		public boolean isLevelComplete() {
+			return levelComplete;
+		}
+
+
+		@Override
+		public TextFragmentRef getLevelMatchedTextCoords() {
+			return levelComplete ? levelCoords[depth - 1] : null;
+		}
+
+
+		/**
+		 * @return the open and close delimiters once the outermost open delimiter has been matched, other chars don't change this parser's state
+		 */
+		@Override
+		public char[] getSkipUntilChars() {
+			return depth > 0 && !super.anyComplete && !super.failed ? openClose : null;
+		}
+
+
+		/**
+		 * @return the current nesting depth, 0 before the first open delimiter and after the parser completes
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+
+		@Override
+		void reset() {
+			super.reset();
+			this.depth = 0;
+			this.levelComplete = false;
+		}
+
+
+		@Override
+		public Balanced copy() {
+			return new Balanced(super.name, open, close);
+		}
+
+	}
+
+
+
+
 	/** Example of a parser for programming identifiers (e.g. 'anotherVar', '$thing', or 'Namespace.Compound.Class_Name$1').
 	 * Allows periods within the string; looks ahead to see if the string ends with a period and if so ends before it.
 	 * @author TeamworkGuy2
 	 * @since 2020-05-22
 	 */
-	public static class Identifier extends BaseCharParserMatchable {
+	public static class Identifier extends BaseCharParserMatchable implements RunCharParser {
+		static final CharClass IDENTIFIER_FIRST_CHARS = CharClass.builder().addRange('a', 'z').addRange('A', 'Z').addChars('_', '$').build();
+		static final CharClass IDENTIFIER_RUN_CHARS = CharClass.builder().addAll(IDENTIFIER_FIRST_CHARS).addRange('0', '9').build();
+		static final CharClass IDENTIFIER_CHARS = CharClass.builder().addAll(IDENTIFIER_RUN_CHARS).addChar('.').build();
+		/** the chars which can be accepted as a run (everything except the special '.' char), null if unknown for a custom char matcher */
+		final CharPredicate runChars;
 
 		public Identifier(String name, CharPredicate charMatcher, CharParserPredicate firstCharMatcher, char[] firstMatchChars, Inclusion includeCondMatchInRes, Object toStringSrc) {
 			super(name, charMatcher, firstCharMatcher, firstMatchChars, includeCondMatchInRes, toStringSrc);
+			this.runChars = charMatcher == IDENTIFIER_CHARS ? IDENTIFIER_RUN_CHARS : null;
 		}
 
 
@@ -466,6 +615,23 @@ public class CharConditions {
 		}
 
 
+		@Override
+		public CharPredicate getRunChars() {
+			return super.matchCount > 0 && !super.anyComplete ? this.runChars : null;
+		}
+
+
+		@Override
+		public void acceptRun(int count, TextParser buf) {
+			super.acceptedCount += count;
+			super.matchCount += count;
+			if(isEnd(buf, super.charMatcher, '.')) {
+				super.anyComplete = true;
+				super.coords.setEnd(buf);
+			}
+		}
+
+
 		protected boolean isEnd(TextParser buf, CharPredicate condition, char notChar) {
 			int read = 0;
 			boolean cont = false;
@@ -505,18 +671,7 @@ public class CharConditions {
 		 * @return a basic parser for a string of contiguous characters matching those allowed in identifiers (e.g. 'anotherVar', '$thing', or '_stspr')
 		 */
 		public static CharConditions.BaseCharParserMatchable newInstance(String name, boolean includeFirstCharsList) {
-			var firstCharSet = new CharSearchSet();
-			firstCharSet.addChar('$');
-			firstCharSet.addChar('_');
-			firstCharSet.addRange('a', 'z');
-			firstCharSet.addRange('A', 'Z');
-			CharParserPredicate firstCharCheck = (char ch, TextParser parser) -> (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || ch == '_' || ch == '$';
-
-			CharPredicate charCheck = (char ch) -> {
-				return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '_' || ch == '$' || ch == '.';
-			};
-
-			return new Identifier(name, charCheck, firstCharCheck, includeFirstCharsList ? firstCharSet.toCharList().toArray() : null, Inclusion.INCLUDE, "[A-Za-z_$.]");
+			return new Identifier(name, IDENTIFIER_CHARS, IDENTIFIER_FIRST_CHARS, includeFirstCharsList ? IDENTIFIER_FIRST_CHARS.toCharArray() : null, Inclusion.INCLUDE, "[A-Za-z_$.]");
 		}
 
 	}
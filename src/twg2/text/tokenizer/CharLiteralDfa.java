@@ -0,0 +1,326 @@
+package twg2.text.tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.TreeSet;
+
+import twg2.parser.textFragment.TextFragmentRefImplMut;
+import twg2.parser.textParser.TextParser;
+
+/** A table driven DFA compiled from all of the non-compound literal {@link CharParserFactory}s in a factory list.
+ * A factory is compiled if it is a {@link CharParserMatchableFactory} with {@link CharParserFactory#getFirstChars()} and all of its parsers
+ * are {@link StringConditions.Literal} or {@link CharConditions.Literal} instances, all other factories are left for the regular parser interpreter.<br>
+ * The DFA runs all compiled factories at once and produces the same result as trying them one at a time:
+ * the lowest index factory which completes a match wins and each factory completes at the first char its parser would complete at
+ * (a {@link StringConditions.Literal} completes when the first of its strings which still match ends, so {@code "==", "="} matches {@code "=="}).
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharLiteralDfa {
+	/** returned by {@link #match(TextParser, TextFragmentRefImplMut)} when none of the compiled factories match */
+	public static final int NO_MATCH = -1;
+
+	/** the dead state */
+	private static final int DEAD = 0;
+	private static final int ROOT = 1;
+
+	private final boolean[] compiled;
+	/** char to transition class for chars [0, 255], 0 is the class of chars which don't appear in any literal */
+	private final int[] latin1Classes;
+	/** sorted chars > 255 which appear in literals and their transition classes */
+	private final char[] otherChars;
+	private final int[] otherClasses;
+	private final int classCount;
+	/** state transitions, {@code transitions[state * classCount + class]} */
+	private final int[] transitions;
+	/** the lowest factory index which completes a match at each state, or {@link Integer#MAX_VALUE} */
+	private final int[] terminalFactory;
+	/** the lowest factory index which completes a match in any state reachable from each state (excluding the state itself), or {@link Integer#MAX_VALUE} */
+	private final int[] minFactoryBelow;
+
+
+	private CharLiteralDfa(boolean[] compiled, int[] latin1Classes, char[] otherChars, int[] otherClasses, int classCount, int[] transitions, int[] terminalFactory, int[] minFactoryBelow) {
+		this.compiled = compiled;
+		this.latin1Classes = latin1Classes;
+		this.otherChars = otherChars;
+		this.otherClasses = otherClasses;
+		this.classCount = classCount;
+		this.transitions = transitions;
+		this.terminalFactory = terminalFactory;
+		this.minFactoryBelow = minFactoryBelow;
+	}
+
+
+	/**
+	 * @param factoryIdx the index of a factory in the array this DFA was compiled from
+	 * @return true if the factory is part of this DFA, false if it must be interpreted
+	 */
+	public boolean isCompiled(int factoryIdx) {
+		return compiled[factoryIdx];
+	}
+
+
+	/** Run the DFA starting at the current {@code buf} character (the char most recently returned by {@link TextParser#nextChar()}).
+	 * If a factory matches, {@code dstCoords} contains the match's location. {@code buf} is always rewound to its original position.
+	 * @param buf the input source
+	 * @param dstCoords the fragment to store the matched location in
+	 * @return the index of the matching factory or {@link #NO_MATCH}
+	 */
+	public int match(TextParser buf, TextFragmentRefImplMut dstCoords) {
+		var terminals = this.terminalFactory;
+		var minBelow = this.minFactoryBelow;
+		int state = ROOT;
+		int read = 0;
+		int best = Integer.MAX_VALUE;
+
+		buf.unread(1);
+		// a match which is incomplete when the input runs out is a failed match
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			read++;
+			if(read == 1) {
+				dstCoords.setStart(buf);
+			}
+
+			state = transitions[state * classCount + charClass(ch)];
+			if(state == DEAD) {
+				break;
+			}
+
+			int terminal = terminals[state];
+			if(terminal < best) {
+				best = terminal;
+				dstCoords.setEnd(buf);
+			}
+			// no lower index factory can complete further on
+			if(minBelow[state] >= best) {
+				break;
+			}
+		}
+
+		// the first char read was the original current char
+		buf.unread(read - 1);
+		return best == Integer.MAX_VALUE ? NO_MATCH : best;
+	}
+
+
+	private final int charClass(char ch) {
+		if(ch < 256) {
+			return latin1Classes[ch];
+		}
+		int idx = Arrays.binarySearch(otherChars, ch);
+		return idx > -1 ? otherClasses[idx] : 0;
+	}
+
+
+	/** Compile the literal factories in a factory list into a DFA
+	 * @param factories the factories, in priority order
+	 * @return the DFA or null if none of the factories can be compiled
+	 */
+	public static CharLiteralDfa compile(CharParserFactory[] factories) {
+		int size = factories.length;
+		var compiled = new boolean[size];
+		// trie nodes: children maps and lowest terminal factory index, index 0 is the unused dead state
+		var children = new ArrayList<HashMap<Character, Integer>>();
+		var terminals = new ArrayList<Integer>();
+		children.add(null);
+		terminals.add(Integer.MAX_VALUE);
+		children.add(new HashMap<>());
+		terminals.add(Integer.MAX_VALUE);
+		boolean anyCompiled = false;
+
+		for(int i = 0; i < size; i++) {
+			var strs = getCompletedPrefixes(factories[i]);
+			if(strs == null) {
+				continue;
+			}
+			compiled[i] = true;
+			anyCompiled = true;
+			for(var str : strs) {
+				int node = ROOT;
+				for(int j = 0, len = str.length(); j < len; j++) {
+					var next = children.get(node).get(str.charAt(j));
+					if(next == null) {
+						next = children.size();
+						children.add(new HashMap<>());
+						terminals.add(Integer.MAX_VALUE);
+						children.get(node).put(str.charAt(j), next);
+					}
+					node = next;
+				}
+				terminals.set(node, Math.min(terminals.get(node), i));
+			}
+		}
+
+		if(!anyCompiled) {
+			return null;
+		}
+
+		// assign transition classes to each distinct char, class 0 is for chars not in any literal
+		var latin1Classes = new int[256];
+		var otherCharsMap = new HashMap<Character, Integer>();
+		int classCount = 1;
+		for(var nodeChildren : children) {
+			if(nodeChildren == null) {
+				continue;
+			}
+			for(var ch : nodeChildren.keySet()) {
+				if(ch < 256) {
+					if(latin1Classes[ch] == 0) {
+						latin1Classes[ch] = classCount++;
+					}
+				}
+				else if(!otherCharsMap.containsKey(ch)) {
+					otherCharsMap.put(ch, classCount++);
+				}
+			}
+		}
+		var otherChars = new char[otherCharsMap.size()];
+		int k = 0;
+		for(var ch : otherCharsMap.keySet()) {
+			otherChars[k++] = ch;
+		}
+		Arrays.sort(otherChars);
+		var otherClasses = new int[otherChars.length];
+		for(int i = 0; i < otherChars.length; i++) {
+			otherClasses[i] = otherCharsMap.get(otherChars[i]);
+		}
+
+		int stateCount = children.size();
+		var transitions = new int[stateCount * classCount];
+		var terminalFactory = new int[stateCount];
+		for(int s = 0; s < stateCount; s++) {
+			terminalFactory[s] = terminals.get(s);
+			var nodeChildren = children.get(s);
+			if(nodeChildren != null) {
+				for(var child : nodeChildren.entrySet()) {
+					char ch = child.getKey();
+					int cls = ch < 256 ? latin1Classes[ch] : otherCharsMap.get(ch);
+					transitions[s * classCount + cls] = child.getValue();
+				}
+			}
+		}
+
+		// child states are always created after their parent, so a reverse pass visits children before parents
+		var minFactoryBelow = new int[stateCount];
+		Arrays.fill(minFactoryBelow, Integer.MAX_VALUE);
+		for(int s = stateCount - 1; s > DEAD; s--) {
+			for(var child : children.get(s).values()) {
+				minFactoryBelow[s] = Math.min(minFactoryBelow[s], Math.min(terminalFactory[child], minFactoryBelow[child]));
+			}
+		}
+
+		return new CharLiteralDfa(compiled, latin1Classes, otherChars, otherClasses, classCount, transitions, terminalFactory, minFactoryBelow);
+	}
+
+
+	/** Get the strings a factory completes a match at (as run by {@link CharMultiConditionParser}) if it only contains literal parsers.
+	 * The factory's parsers are simulated on each prefix of their strings: a {@link StringConditions.Literal} completes in the states
+	 * marked by {@link StringTrie#completes}, a {@link CharConditions.Literal} completes after one char and fails after that, and a factory
+	 * with several parsers (a {@link CharCompoundConditions.Filter}) completes once any of its parsers which still match completes.
+	 * A factory's parser stops at the first char it completes at, so none of the returned strings is a prefix of another.
+	 * @return the strings at which the factory completes, or null if the factory can't be compiled
+	 */
+	private static ArrayList<String> getCompletedPrefixes(CharParserFactory factory) {
+		if(factory.isCompound() || !(factory instanceof CharParserMatchableFactory<?>)) {
+			return null;
+		}
+		var matchableFactory = (CharParserMatchableFactory<?>)factory;
+		var firstChars = matchableFactory.getFirstChars();
+		if(firstChars == null) {
+			return null;
+		}
+
+		var conds = matchableFactory.conditions;
+		int condCnt = conds.length;
+		var tries = new StringTrie[condCnt];
+		for(int c = 0; c < condCnt; c++) {
+			var cond = conds[c];
+			// exact class checks, sub-classes may override acceptNext()
+			if(cond.getClass() == StringConditions.Literal.class) {
+				tries[c] = ((StringConditions.Literal)cond).trie;
+			}
+			else if(cond.getClass() == CharConditions.Literal.class) {
+				// one char strings complete at the first char and have no children, so the next char fails
+				var charMatcher = ((CharConditions.Literal)cond).charMatcher;
+				var chars = new ArrayList<String>();
+				for(char ch : firstChars) {
+					if(charMatcher.test(ch)) {
+						chars.add(String.valueOf(ch));
+					}
+				}
+				tries[c] = new StringTrie(chars.toArray(new String[chars.size()]));
+			}
+			else {
+				return null;
+			}
+		}
+
+		var res = new ArrayList<String>();
+		// depth first, each pending prefix's trie state for each parser (-1 if the parser failed) and whether the parser has completed
+		var pendingPrefixes = new ArrayList<String>();
+		var pendingStates = new ArrayList<int[]>();
+		var pendingCompletes = new ArrayList<boolean[]>();
+		pendingPrefixes.add("");
+		pendingStates.add(new int[condCnt]); // all StringTrie.ROOT
+		pendingCompletes.add(new boolean[condCnt]);
+		var nextChars = new TreeSet<Character>();
+		while(!pendingPrefixes.isEmpty()) {
+			int last = pendingPrefixes.size() - 1;
+			var prefix = pendingPrefixes.remove(last);
+			var states = pendingStates.remove(last);
+			var completes = pendingCompletes.remove(last);
+
+			// the chars which any of the parsers still matching accept next
+			nextChars.clear();
+			for(int c = 0; c < condCnt; c++) {
+				int state = states[c];
+				if(state > -1) {
+					var trie = tries[c];
+					for(int e = trie.edgeStarts[state], end = trie.edgeStarts[state + 1]; e < end; e++) {
+						nextChars.add(trie.edgeChars[e]);
+					}
+				}
+			}
+
+			for(char ch : nextChars) {
+				// the factory only creates a parser if the first char matches one of its first chars
+				if(prefix.isEmpty() && !contains(firstChars, ch)) {
+					continue;
+				}
+				var childStates = new int[condCnt];
+				var childCompletes = new boolean[condCnt];
+				boolean anyComplete = false;
+				for(int c = 0; c < condCnt; c++) {
+					int state = states[c];
+					int next = state > -1 ? tries[c].child(state, ch) : -1;
+					childStates[c] = next;
+					if(next > -1) {
+						childCompletes[c] = completes[c] || tries[c].completes[next];
+						anyComplete |= childCompletes[c];
+					}
+				}
+				var childPrefix = prefix + ch;
+				if(anyComplete) {
+					res.add(childPrefix);
+				}
+				else {
+					pendingPrefixes.add(childPrefix);
+					pendingStates.add(childStates);
+					pendingCompletes.add(childCompletes);
+				}
+			}
+		}
+		return res;
+	}
+
+
+	private static boolean contains(char[] chars, char ch) {
+		for(int i = 0, size = chars.length; i < size; i++) {
+			if(chars[i] == ch) { return true; }
+		}
+		return false;
+	}
+
+}
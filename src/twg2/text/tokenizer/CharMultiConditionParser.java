@@ -1,12 +1,14 @@
 package twg2.text.tokenizer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map.Entry;
 
 import twg2.parser.condition.text.CharParser;
 import twg2.parser.textFragment.TextFragmentConsumer;
 import twg2.parser.textFragment.TextFragmentRef;
+import twg2.parser.textFragment.TextFragmentRefImplMut;
 import twg2.parser.textParser.TextParser;
 import twg2.text.tokenizer.analytics.TokenizationLogger;
 
@@ -20,29 +22,46 @@ import twg2.text.tokenizer.analytics.TokenizationLogger;
  */
 public class CharMultiConditionParser {
 
-	/**
-	 * @author TeamworkGuy2
-	 * @since 2016-09-08
-	 */
-	static class MatcherState {
-		int startOff;
-		CharParser parser;
-		/** index into the parent 'conditionParserFactories' and 'conditionConsumers' arrays */
-		int index;
-
-		public MatcherState(int startOff, CharParser parser, int index) {
-			this.startOff = startOff;
-			this.parser = parser;
-			this.index = index;
-		}
-
-	}
-
-
-
 	private CharParserFactory[] conditionParserFactories;
 	private TextFragmentConsumer[] conditionConsumers;
-	private ArrayList<MatcherState> curCompoundMatchers;
+	/** first char dispatch table, see {@link TokenizerSpec} */
+	private int[][][] firstCharDispatch;
+	private int[] firstCharFallback;
+	/** optional DFA for the literal factories, null if not enabled or none of the factories are literals */
+	private CharLiteralDfa literalDfa;
+	private TextFragmentRefImplMut literalDfaCoords;
+	/** optional token output, if not null, tokens are added to this buffer instead of being passed to 'conditionConsumers' */
+	private TokenBuffer tokenBuffer;
+	/** per factory parser pools owned by this parser (a {@link TokenizerSpec} session), created when first used, null if parsers are returned to their factories */
+	private ParserPool[] parserPools;
+	/** the policy used by each of the 'parserPools', see {@link TokenizerSpec#getSessionPoolPolicy()} */
+	private ParserPoolPolicy parserPoolPolicy;
+	/** true to advance all of the non-compound parsers which match a char together, see {@link #setAdvanceParsersTogether(boolean)} */
+	private boolean advanceTogether;
+	/** reusable candidate parsers, their factory indices, and the number of chars each completed with, used when 'advanceTogether' is true */
+	private CharParser[] candidateParsers;
+	private int[] candidateIdxs;
+	private int[] candidateLens;
+	/** the in-progress compound parser stack, stored as parallel arrays so that pushing and popping a compound parser doesn't allocate:
+	 * each entry's start offset, factory index (into 'conditionParserFactories' and 'conditionConsumers'), and parser */
+	private int[] compoundStartOffs;
+	private int[] compoundIdxs;
+	private CharParser[] compoundParsers;
+	private int compoundSize;
+	/** per compound stack entry, the number of newer {@link NestedCharParser}s from the same factory, a shadowed nested parser isn't passed any chars */
+	private int[] compoundShadowCounts;
+	/** true to only pass chars to the compound parsers which can use them, see {@link #setSkipAheadCompoundParsers(boolean)} */
+	private boolean skipAhead;
+	private boolean scanRuns;
+	/** whether each factory's parsers are {@link RunCharParser}s, checked once when the factory's first parser is created,
+	 * null until known (a factory's parsers are all the same type) */
+	private Boolean[] runParserFactories;
+	/** per compound stack entry, the {@link SkipAheadCharParser#getSkipUntilChars()} (Latin-1 only) or null if the parser must be passed every char */
+	private char[][] compoundSkipUntil;
+	/** the number of compound stack entries waiting for each Latin-1 char */
+	private int[] skipUntilCounts;
+	/** the number of compound stack entries with a null 'compoundSkipUntil' */
+	private int compoundMustAcceptCount;
 	private TokenizationLogger parseLog;
 
 
@@ -51,37 +70,62 @@ public class CharMultiConditionParser {
 	 */
 	@SafeVarargs
 	public CharMultiConditionParser(TokenizationLogger parseLog, Entry<CharParserFactory, TextFragmentConsumer>... conditions) {
-		var cpfs = new CharParserFactory[conditions.length];
-		var ccs = new TextFragmentConsumer[conditions.length];
-		int compoundCnt = 0;
-		for(int i = 0, size = conditions.length; i < size; i++) {
-			var cond = conditions[i];
-			cpfs[i] = cond.getKey();
-			ccs[i] = cond.getValue();
-			compoundCnt += (cond.getKey().isCompound() ? 1 : 0);
-		}
-		this.conditionParserFactories = cpfs;
-		this.conditionConsumers = ccs;
-		this.curCompoundMatchers = new ArrayList<>(compoundCnt < 10 ? compoundCnt : 10);
-		this.parseLog = parseLog;
+		this(parseLog, false, Arrays.asList(conditions));
 	}
 
 
 	public CharMultiConditionParser(TokenizationLogger parseLog, Collection<? extends Entry<CharParserFactory, TextFragmentConsumer>> conditions) {
-		var condCount = conditions.size();
-		var cpfs = new CharParserFactory[condCount];
-		var ccs = new TextFragmentConsumer[condCount];
-		int compoundCnt = 0;
-		int i = 0;
-		for(var cond : conditions) {
-			cpfs[i] = cond.getKey();
-			ccs[i] = cond.getValue();
-			compoundCnt += (cond.getKey().isCompound() ? 1 : 0);
-			i++;
-		}
-		this.conditionParserFactories = cpfs;
-		this.conditionConsumers = ccs;
-		this.curCompoundMatchers = new ArrayList<>(compoundCnt < 10 ? compoundCnt : 10);
+		this(parseLog, false, conditions);
+	}
+
+
+	/**
+	 * @param parseLog optional performance tracker, can be null
+	 * @param compileLiterals true to compile all of the literal string/char factories into a {@link CharLiteralDfa} which matches them all at once,
+	 * false to try each factory one at a time
+	 * @param conditions the factories and their consumers, in priority order
+	 */
+	public CharMultiConditionParser(TokenizationLogger parseLog, boolean compileLiterals, Collection<? extends Entry<CharParserFactory, TextFragmentConsumer>> conditions) {
+		this(new TokenizerSpec(compileLiterals, keys(conditions)), parseLog, values(conditions), null, false);
+	}
+
+
+	/** Create a parser which adds tokens to a {@link TokenBuffer} instead of passing them to consumers
+	 * @param parseLog optional performance tracker, can be null
+	 * @param compileLiterals see {@link #CharMultiConditionParser(TokenizationLogger, boolean, Collection)}
+	 * @param tokenBuffer the buffer which tokens are added to, each token's factory index is the factory's index in {@code factories}
+	 * @param factories the factories, in priority order
+	 */
+	public CharMultiConditionParser(TokenizationLogger parseLog, boolean compileLiterals, TokenBuffer tokenBuffer, Collection<? extends CharParserFactory> factories) {
+		this(new TokenizerSpec(compileLiterals, factories), parseLog, null, tokenBuffer, false);
+	}
+
+
+	/**
+	 * @param spec the compiled factories
+	 * @param parseLog optional performance tracker, can be null
+	 * @param consumers the consumer for each factory, null if {@code tokenBuffer} is provided
+	 * @param tokenBuffer optional token output
+	 * @param ownParserPools true to pool parsers in this parser instead of returning them to their factories
+	 */
+	CharMultiConditionParser(TokenizerSpec spec, TokenizationLogger parseLog, TextFragmentConsumer[] consumers, TokenBuffer tokenBuffer, boolean ownParserPools) {
+		this.conditionParserFactories = spec.factories;
+		this.conditionConsumers = consumers;
+		this.tokenBuffer = tokenBuffer;
+		this.firstCharFallback = spec.firstCharFallback;
+		this.firstCharDispatch = spec.firstCharDispatch;
+		this.literalDfa = spec.literalDfa;
+		this.literalDfaCoords = spec.literalDfa != null ? new TextFragmentRefImplMut() : null;
+		if(ownParserPools) {
+			this.parserPools = new ParserPool[spec.factories.length];
+			this.parserPoolPolicy = spec.sessionPoolPolicy;
+		}
+		int compoundCnt = spec.compoundCount;
+		int stackCapacity = compoundCnt < 10 ? Math.max(compoundCnt, 1) : 10;
+		this.compoundStartOffs = new int[stackCapacity];
+		this.compoundIdxs = new int[stackCapacity];
+		this.compoundParsers = new CharParser[stackCapacity];
+		this.compoundShadowCounts = new int[stackCapacity];
 		this.parseLog = parseLog;
 	}
 
@@ -92,53 +136,260 @@ public class CharMultiConditionParser {
 	 * @return the number of characters read if a non-compound parser completed a token, else returns
 	 */
 	public int parse(char ch, TextParser buf) {
+		if(this.advanceTogether) {
+			return parseTogether(ch, buf);
+		}
 		int addedCondCount = 0;
 		int createParserCount = 0;
 		int charsRead = 0;
 		TextFragmentRef completedToken = null;
 		var conds = this.conditionParserFactories;
-		var consumers = this.conditionConsumers;
+		var dfa = this.literalDfa;
+		int dfaMatch = Integer.MIN_VALUE; // not run yet
+
+		// lookup the factories which may match this char, in registration order
+		var dispatchPage = this.firstCharDispatch[ch >>> 8];
+		var condIdxs = dispatchPage != null ? dispatchPage[ch & 0xFF] : this.firstCharFallback;
 
 		// add parsers that match
 		outer:
-		for(int i = 0, size = conds.length; i < size; i++) {
+		for(int k = 0, size = condIdxs.length; k < size; k++) {
+			int i = condIdxs[k];
+			// negative indices are factories without a list of first chars, so check them the long way
+			if(i < 0) {
+				i = ~i;
+				if(!conds[i].isMatch(ch, buf)) {
+					continue;
+				}
+			}
 			CharParserFactory cond = conds[i];
 
+			// compiled literal factories are all matched at once the first time one of them is reached
+			if(dfa != null && dfa.isCompiled(i)) {
+				if(dfaMatch == Integer.MIN_VALUE) {
+					dfaMatch = dfa.match(buf, this.literalDfaCoords);
+				}
+				if(dfaMatch == i) {
+					var coords = this.literalDfaCoords;
+					charsRead = coords.getOffsetEnd() - coords.getOffsetStart();
+					// advance to the last char of the match
+					for(int j = 1; j < charsRead; j++) {
+						buf.nextChar();
+					}
+					completedToken = consumeToken(coords, i, null);
+					break outer;
+				}
+				continue;
+			}
+
 			// when possible parse encountered (based on one char), try continuing parsing it
-			if(cond.isMatch(ch, buf)) {
-				if(cond.isCompound()) {
-					CharParser parserCond = cond.createParser();
-					this.curCompoundMatchers.add(new MatcherState(buf.getPosition(), parserCond, i));
+			if(cond.isCompound()) {
+				if(!continuesNestedParser(i)) {
+					pushCompoundParser(buf.getPosition(), i, createParser(i));
 					addedCondCount++;
 				}
-				else {
-					CharParser parser = cond.createParser();
-					createParserCount++;
-					buf.unread(1); // unread the current character so the parser can re-accept it, although isMatch() already confirmed that it will be accepted
-					while(buf.hasNext()) {
-						char ch2 = buf.nextChar();
-						charsRead++;
+			}
+			else {
+				CharParser parser = createParser(i);
+				createParserCount++;
+				RunCharParser runParser = null;
+				if(this.scanRuns) {
+					var isRunParser = this.runParserFactories[i];
+					if(isRunParser == null) {
+						isRunParser = this.runParserFactories[i] = (parser instanceof RunCharParser);
+					}
+					if(isRunParser) {
+						runParser = (RunCharParser)parser;
+					}
+				}
+				buf.unread(1); // unread the current character so the parser can re-accept it, although isMatch() already confirmed that it will be accepted
+				boolean complete = false;
+				while(buf.hasNext()) {
+					char ch2 = buf.nextChar();
+					charsRead++;
 
-						parser.acceptNext(ch2, buf);
+					parser.acceptNext(ch2, buf);
 
-						boolean complete = parser.isComplete();
-						boolean failed = parser.isFailed();
+					complete = parser.isComplete();
+					if(complete || parser.isFailed()) {
+						break;
+					}
 
-						if(complete) {
-							completedToken = consumeToken(parser, consumers[i]);
-							// return the parse once completed/failed
-							cond.returnParser(parser);
-							break outer;
-						}
-						else if(failed) {
-							// return the parse once completed/failed
-							cond.returnParser(parser);
-							buf.unread(charsRead - 1); // since we reread the start char before the loop
-							charsRead = 0;
-							break;
+					// read the rest of a run of chars in one step
+					if(runParser != null) {
+						var runChars = runParser.getRunChars();
+						int runLen = runChars != null ? CharRunScanner.nextRun(buf, runChars) : 0;
+						if(runLen > 0) {
+							charsRead += runLen;
+							runParser.acceptRun(runLen, buf);
+							complete = parser.isComplete();
+							if(complete || parser.isFailed()) {
+								break;
+							}
 						}
 					}
 				}
+
+				if(complete) {
+					completedToken = consumeToken(parser.getMatchedTextCoords(), i, parser);
+					// return the parse once completed/failed
+					returnParser(i, parser);
+					break outer;
+				}
+				// the parser failed or ran out of input before completing, return it and rewind
+				returnParser(i, parser);
+				buf.unread(charsRead - 1); // since we reread the start char before the loop
+				charsRead = 0;
+			}
+		}
+
+		if(parseLog != null) {
+			parseLog.logCountCompoundCharParserMatch(addedCondCount);
+			parseLog.logCountCreateParser(addedCondCount + createParserCount);
+		}
+
+		if(completedToken == null) {
+			passCompletedCharsToCompoundParsers(ch, buf, this.parseLog);
+		}
+		else if(parseLog != null) {
+			parseLog.logCountTextFragmentsConsumed(1);
+		}
+
+		return charsRead;
+	}
+
+
+	/** The same as {@link #parse(char, TextParser)}, except all of the non-compound parsers which match {@code ch} read the input together
+	 * in a single pass instead of one at a time, each parser is dropped when it fails and the lowest index parser which completes wins
+	 */
+	private int parseTogether(char ch, TextParser buf) {
+		int addedCondCount = 0;
+		int createParserCount = 0;
+		int charsRead = 0;
+		TextFragmentRef completedToken = null;
+		var conds = this.conditionParserFactories;
+		var dfa = this.literalDfa;
+		int startPos = buf.getPosition();
+
+		var dispatchPage = this.firstCharDispatch[ch >>> 8];
+		var condIdxs = dispatchPage != null ? dispatchPage[ch & 0xFF] : this.firstCharFallback;
+
+		// the lowest index factory which has completed a match so far
+		int best = Integer.MAX_VALUE;
+		int bestLen = 0;
+		TextFragmentRef bestCoords = null;
+		CharParser bestParser = null;
+
+		// collect candidates, the compiled literals are all matched by the DFA up front
+		var parsers = this.candidateParsers;
+		var idxs = this.candidateIdxs;
+		var lens = this.candidateLens;
+		int candCnt = 0;
+		boolean dfaRun = false;
+		for(int k = 0, size = condIdxs.length; k < size; k++) {
+			int i = condIdxs[k];
+			if(i < 0) {
+				i = ~i;
+				if(!conds[i].isMatch(ch, buf)) {
+					continue;
+				}
+			}
+			if(i > best) {
+				break;
+			}
+			if(dfa != null && dfa.isCompiled(i)) {
+				if(!dfaRun) {
+					dfaRun = true;
+					int dfaMatch = dfa.match(buf, this.literalDfaCoords);
+					if(dfaMatch != CharLiteralDfa.NO_MATCH) {
+						best = dfaMatch;
+						bestCoords = this.literalDfaCoords;
+						bestParser = null;
+						bestLen = bestCoords.getOffsetEnd() - bestCoords.getOffsetStart();
+					}
+				}
+				continue;
+			}
+			idxs[candCnt] = i;
+			parsers[candCnt] = null;
+			lens[candCnt] = 0;
+			candCnt++;
+		}
+
+		// advance the non-compound candidates which could still beat 'best' together, one char at a time
+		int alive = 0;
+		for(int c = 0; c < candCnt; c++) {
+			var cond = conds[idxs[c]];
+			if(!cond.isCompound() && idxs[c] < best) {
+				parsers[c] = createParser(idxs[c]);
+				createParserCount++;
+				alive++;
+			}
+		}
+		if(alive > 0) {
+			buf.unread(1); // unread the current character so the parsers can re-accept it
+			while(alive > 0 && buf.hasNext()) {
+				char ch2 = buf.nextChar();
+				charsRead++;
+				for(int c = 0; c < candCnt; c++) {
+					var parser = parsers[c];
+					if(parser == null || lens[c] != 0) {
+						continue;
+					}
+					// a lower index factory already completed
+					if(idxs[c] > best) {
+						lens[c] = -1;
+						alive--;
+						continue;
+					}
+					parser.acceptNext(ch2, buf);
+					if(parser.isComplete()) {
+						lens[c] = charsRead;
+						best = idxs[c];
+						bestLen = charsRead;
+						bestCoords = parser.getMatchedTextCoords();
+						bestParser = parser;
+						alive--;
+					}
+					else if(parser.isFailed()) {
+						lens[c] = -1;
+						alive--;
+					}
+				}
+			}
+			// rewind to the last char of the winning token, or to the current char if nothing completed
+			int endLen = bestLen > 0 ? bestLen : 1;
+			if(charsRead >= endLen) {
+				buf.unread(charsRead - endLen);
+			}
+			// a DFA match can be longer than the input read by the failed parsers
+			for(int j = charsRead; j < endLen; j++) {
+				buf.nextChar();
+			}
+		}
+		else if(bestLen > 0) {
+			// advance to the last char of the DFA match
+			for(int j = 1; j < bestLen; j++) {
+				buf.nextChar();
+			}
+		}
+		charsRead = bestLen;
+
+		if(bestLen > 0) {
+			completedToken = consumeToken(bestCoords, best, bestParser);
+		}
+
+		// compound parsers are started in order up to the winning factory, the same as a sequential parse
+		for(int c = 0; c < candCnt; c++) {
+			int i = idxs[c];
+			var cond = conds[i];
+			if(parsers[c] != null) {
+				returnParser(i, parsers[c]);
+				parsers[c] = null;
+			}
+			else if(cond.isCompound() && i < best && !continuesNestedParser(i)) {
+				pushCompoundParser(startPos, i, createParser(i));
+				addedCondCount++;
 			}
 		}
 
@@ -148,7 +399,7 @@ public class CharMultiConditionParser {
 		}
 
 		if(completedToken == null) {
-			passCompletedCharsToCompoundParsers(ch, buf, this.parseLog, this.curCompoundMatchers);
+			passCompletedCharsToCompoundParsers(ch, buf, this.parseLog);
 		}
 		else if(parseLog != null) {
 			parseLog.logCountTextFragmentsConsumed(1);
@@ -158,27 +409,153 @@ public class CharMultiConditionParser {
 	}
 
 
-	private final void passCompletedCharsToCompoundParsers(char ch, TextParser buf, TokenizationLogger parseLog, ArrayList<MatcherState> compoundMatchers) {
+	/** Enable or disable advancing competing parsers together. When enabled, all of the non-compound parsers which match a char are advanced over the input
+	 * together (dropping each one as it fails) instead of one at a time with a rewind after each failure, so ambiguous prefixes are only read once.
+	 * The resulting tokens are identical either way.
+	 * @param advanceTogether true to advance competing non-compound parsers together, false (the default) to try them one at a time
+	 */
+	public void setAdvanceParsersTogether(boolean advanceTogether) {
+		if(advanceTogether && this.candidateParsers == null) {
+			int size = this.conditionParserFactories.length;
+			this.candidateParsers = new CharParser[size];
+			this.candidateIdxs = new int[size];
+			this.candidateLens = new int[size];
+		}
+		this.advanceTogether = advanceTogether;
+	}
+
+
+	/**
+	 * @return the number of in-progress compound parsers, when this is zero no token is in progress between calls to {@link #parse(char, TextParser)}
+	 * so the parser's state is the same as a new parser's state
+	 */
+	public int getCompoundParserDepth() {
+		return this.compoundSize;
+	}
+
+
+	/**
+	 * @return the statistics of this session's pool for factory {@code factoryIdx}, or null if this parser isn't a {@link TokenizerSpec} session
+	 * (its parsers are pooled by their factories)
+	 */
+	public ParserPoolStats getPoolStats(int factoryIdx) {
+		if(this.parserPools == null) {
+			return null;
+		}
+		var pool = this.parserPools[factoryIdx];
+		return pool != null ? pool.getStats() : new ParserPool(this.parserPoolPolicy).getStats();
+	}
+
+
+	/** Let the pool policy shrink this session's parser pools which haven't been used since the last call to this method,
+	 * see {@link ParserPoolPolicy#resizeIdle(int, int, long)}. Does nothing if this parser isn't a {@link TokenizerSpec} session
+	 */
+	public void trimIdlePools() {
+		var pools = this.parserPools;
+		if(pools != null) {
+			for(var pool : pools) {
+				if(pool != null) {
+					pool.trimIdle();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * @return the buffer this parser adds tokens to, or null if tokens are passed to consumers
+	 */
+	public TokenBuffer getTokenBuffer() {
+		return this.tokenBuffer;
+	}
+
+
+	/** Enable or disable skipping chars for compound parsers which are only waiting for their end marker. When enabled, each in-progress compound parser
+	 * which is a {@link SkipAheadCharParser} (i.e. a start/end marker pair whose start has been matched) is only passed the chars which can end it,
+	 * so the cost per char no longer grows with the nesting depth of blocks which are waiting to be closed. The resulting tokens are identical either way.
+	 * @param skipAhead true to skip chars that waiting compound parsers don't need, false (the default) to pass every char to every in-progress compound parser
+	 */
+	public void setSkipAheadCompoundParsers(boolean skipAhead) {
+		if(skipAhead && !this.skipAhead) {
+			this.compoundSkipUntil = new char[this.compoundParsers.length][];
+			this.skipUntilCounts = new int[256];
+			this.compoundMustAcceptCount = this.compoundSize;
+			this.skipAhead = true;
+			for(int i = 0, size = this.compoundSize; i < size; i++) {
+				updateSkipUntil(i);
+			}
+		}
+		else if(!skipAhead) {
+			this.compoundSkipUntil = null;
+			this.skipUntilCounts = null;
+			this.compoundMustAcceptCount = 0;
+			this.skipAhead = false;
+		}
+	}
+
+
+	/** Enable or disable scanning runs of chars. When enabled, a non-compound parser which is a {@link RunCharParser} (for example an identifier,
+	 * number, or whitespace condition) has the rest of each run of chars it accepts found by a {@link CharRunScanner} and accepted in one step,
+	 * instead of one {@code acceptNext()} call and one char of look ahead per char.
+	 * Runs are scanned directly from a {@link RunTextParser} input, other inputs are read one char at a time. The resulting tokens are identical either way.
+	 * Only applies to the sequential parse, not {@link #setAdvanceParsersTogether(boolean)} where parsers share the input position.<br>
+	 * This is not always faster: the per token work (starting parsers, rewinding the ones that fail, and emitting tokens) is unchanged,
+	 * so on input made of short runs, such as a few spaces between operators, it can be slightly slower than the per char path
+	 * (see {@code CharRunBenchmark}, measured at 0.8x to 1.3x depending on the input, the {@link TextParser} type, and the JDK).
+	 * Measure with the target input before enabling it.
+	 * @param scanRuns true to scan runs of chars, false (the default) to pass every char to {@code acceptNext()}
+	 */
+	public void setScanCharRuns(boolean scanRuns) {
+		this.scanRuns = scanRuns;
+		this.runParserFactories = scanRuns ? new Boolean[this.conditionParserFactories.length] : null;
+	}
+
+
+	private final void passCompletedCharsToCompoundParsers(char ch, TextParser buf, TokenizationLogger parseLog) {
 		int acceptedFragCount = 0;
 		int acceptedCount = 0;
+		var compoundParsers = this.compoundParsers;
+		boolean skipAhead = this.skipAhead;
+		// when skipping ahead, the number of compound parsers which still need this char, once they have all been passed the char the loop can stop early
+		int needCount = skipAhead ? this.compoundMustAcceptCount + (ch < 256 ? this.skipUntilCounts[ch] : 0) : Integer.MAX_VALUE;
 
 		// for each in-progress compound parser, check if it accepts the next token, if not, remove it from the current set of matching parsers
 		// IMPORTANT: we loop backward so that more recently started parser can consume input first (this ensures that things like matching quote or parentheses are matched in order)
-		for(int i = compoundMatchers.size() - 1; i > -1; i--) {
-			MatcherState condEntry = compoundMatchers.get(i);
-			CharParser cond = condEntry.parser;
+		for(int i = this.compoundSize - 1; i > -1 && needCount > 0; i--) {
+			CharParser cond = compoundParsers[i];
 
+			if(skipAhead) {
+				if(isSkipped(i, ch)) {
+					continue;
+				}
+				needCount--;
+			}
+			// a newer parser from the same factory is tracking the nested levels
+			if(this.compoundShadowCounts[i] > 0) {
+				continue;
+			}
 			cond.acceptNext(ch, buf);
 			acceptedCount++;
+			if(skipAhead) {
+				updateSkipUntil(i);
+			}
 
 			boolean complete = cond.isComplete();
 			boolean failed = cond.isFailed();
 
+			// an inner level of a nested parser completed, the parser stays in progress
+			if(!complete && !failed && cond instanceof NestedCharParser && ((NestedCharParser)cond).isLevelComplete()) {
+				consumeToken(((NestedCharParser)cond).getLevelMatchedTextCoords(), this.compoundIdxs[i], null);
+				acceptedFragCount++;
+				// IMPORTANT: this ensures that a character can only be used to complete 1 token
+				break;
+			}
+
 			if(complete || failed) {
 				// call the consumer when the token is done being parsed AND all in-flight conditions are compound OR there are no other conditions being parsed
 				// (a non-compound conditions that started parsing before this condition may or may not complete successfully)
 				if(complete) {
-					TextFragmentRef frag = consumeToken(cond, this.conditionConsumers[condEntry.index]);
+					TextFragmentRef frag = consumeToken(cond.getMatchedTextCoords(), this.compoundIdxs[i], cond);
 					acceptedFragCount++;
 
 					// TODO if all remaining matchers on the curMatchers stack are compound, allow them to accept this char (which already completed a token),
@@ -187,11 +564,16 @@ public class CharMultiConditionParser {
 					// closing ")" parser never gets called and never sets the start position of its 'coords'
 					if(frag.getOffsetEnd() - frag.getOffsetStart() == 1) {
 						for(int k = i - 1; k > -1; k--) {
-							MatcherState condEntryTmp = compoundMatchers.get(k);
-							CharParser condTmp = condEntryTmp.parser;
+							CharParser condTmp = compoundParsers[k];
+							if((skipAhead && isSkipped(k, ch)) || this.compoundShadowCounts[k] > 0) {
+								continue;
+							}
 
 							condTmp.acceptNext(ch, buf);
 							acceptedCount++;
+							if(skipAhead) {
+								updateSkipUntil(k);
+							}
 
 							boolean completeTmp = condTmp.isComplete();
 							boolean failedTmp = condTmp.isFailed();
@@ -204,15 +586,13 @@ public class CharMultiConditionParser {
 						}
 					}
 
-					var removed = compoundMatchers.remove(i);
 					// return the parse once completed/failed
-					this.conditionParserFactories[removed.index].returnParser(removed.parser);
+					removeCompoundParser(i);
 					// IMPORTANT: this ensures that a character can only be used to complete 1 token
 					break;
 				}
-				var removed = compoundMatchers.remove(i);
 				// return the parse once completed/failed
-				this.conditionParserFactories[removed.index].returnParser(removed.parser);
+				removeCompoundParser(i);
 			}
 		}
 
@@ -223,12 +603,209 @@ public class CharMultiConditionParser {
 	}
 
 
-	private static TextFragmentRef consumeToken(CharParser parser, TextFragmentConsumer consumer) {
-		TextFragmentRef frag = parser.getMatchedTextCoords();
+	private void pushCompoundParser(int startOff, int factoryIdx, CharParser parser) {
+		int size = this.compoundSize;
+		if(size == this.compoundParsers.length) {
+			int capacity = size * 2;
+			this.compoundStartOffs = Arrays.copyOf(this.compoundStartOffs, capacity);
+			this.compoundIdxs = Arrays.copyOf(this.compoundIdxs, capacity);
+			this.compoundParsers = Arrays.copyOf(this.compoundParsers, capacity);
+			this.compoundShadowCounts = Arrays.copyOf(this.compoundShadowCounts, capacity);
+			if(this.skipAhead) {
+				this.compoundSkipUntil = Arrays.copyOf(this.compoundSkipUntil, capacity);
+			}
+		}
+		this.compoundStartOffs[size] = startOff;
+		this.compoundIdxs[size] = factoryIdx;
+		this.compoundParsers[size] = parser;
+		this.compoundShadowCounts[size] = 0;
+		this.compoundSize = size + 1;
+		if(parser instanceof NestedCharParser) {
+			shadowNestedParsers(size, 1);
+		}
+		if(this.skipAhead) {
+			// a new parser hasn't seen its first char yet
+			this.compoundSkipUntil[size] = null;
+			this.compoundMustAcceptCount++;
+		}
+	}
+
+
+	/** Remove the compound parser at {@code idx} from the stack (shifting the more recent entries down in place) and return it to its pool
+	 */
+	private void removeCompoundParser(int idx) {
+		var parser = this.compoundParsers[idx];
+		int factoryIdx = this.compoundIdxs[idx];
+		int last = this.compoundSize - 1;
+		if(parser instanceof NestedCharParser) {
+			shadowNestedParsers(idx, -1);
+		}
+		if(this.skipAhead) {
+			removeSkipUntil(this.compoundSkipUntil[idx]);
+			if(idx < last) {
+				System.arraycopy(this.compoundSkipUntil, idx + 1, this.compoundSkipUntil, idx, last - idx);
+			}
+			this.compoundSkipUntil[last] = null;
+		}
+		if(idx < last) {
+			System.arraycopy(this.compoundStartOffs, idx + 1, this.compoundStartOffs, idx, last - idx);
+			System.arraycopy(this.compoundIdxs, idx + 1, this.compoundIdxs, idx, last - idx);
+			System.arraycopy(this.compoundParsers, idx + 1, this.compoundParsers, idx, last - idx);
+			System.arraycopy(this.compoundShadowCounts, idx + 1, this.compoundShadowCounts, idx, last - idx);
+		}
+		this.compoundParsers[last] = null;
+		this.compoundSize = last;
+		returnParser(factoryIdx, parser);
+	}
+
+
+	/**
+	 * @return true if the innermost in-progress compound parser is a {@link NestedCharParser} created by factory {@code factoryIdx},
+	 * in which case it starts the new level itself instead of a new parser being started
+	 */
+	private boolean continuesNestedParser(int factoryIdx) {
+		int top = this.compoundSize - 1;
+		return top > -1 && this.compoundIdxs[top] == factoryIdx && this.compoundParsers[top] instanceof NestedCharParser;
+	}
+
+
+	/** Add {@code delta} to the shadow count of each {@link NestedCharParser} below {@code idx} from the same factory as the parser at {@code idx}
+	 */
+	private void shadowNestedParsers(int idx, int delta) {
+		int factoryIdx = this.compoundIdxs[idx];
+		for(int j = idx - 1; j > -1; j--) {
+			if(this.compoundIdxs[j] == factoryIdx) {
+				this.compoundShadowCounts[j] += delta;
+			}
+		}
+	}
+
+
+	/**
+	 * @return true if the compound parser at {@code idx} is waiting for specific chars and {@code ch} isn't one of them
+	 */
+	private boolean isSkipped(int idx, char ch) {
+		var chars = this.compoundSkipUntil[idx];
+		if(chars == null) {
+			return false;
+		}
+		for(int i = 0, size = chars.length; i < size; i++) {
+			if(chars[i] == ch) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/** Refresh the skip until chars of the compound parser at {@code idx} after it has accepted a char
+	 */
+	private void updateSkipUntil(int idx) {
+		var parser = this.compoundParsers[idx];
+		var chars = parser instanceof SkipAheadCharParser ? ((SkipAheadCharParser)parser).getSkipUntilChars() : null;
+		if(chars != null) {
+			for(int i = 0, size = chars.length; i < size; i++) {
+				if(chars[i] > 255) {
+					chars = null;
+					break;
+				}
+			}
+		}
+		var prevChars = this.compoundSkipUntil[idx];
+		if(prevChars != chars) {
+			removeSkipUntil(prevChars);
+			if(chars == null) {
+				this.compoundMustAcceptCount++;
+			}
+			else {
+				var counts = this.skipUntilCounts;
+				for(int i = 0, size = chars.length; i < size; i++) {
+					counts[chars[i]]++;
+				}
+			}
+			this.compoundSkipUntil[idx] = chars;
+		}
+	}
+
+
+	private void removeSkipUntil(char[] chars) {
+		if(chars == null) {
+			this.compoundMustAcceptCount--;
+		}
+		else {
+			var counts = this.skipUntilCounts;
+			for(int i = 0, size = chars.length; i < size; i++) {
+				counts[chars[i]]--;
+			}
+		}
+	}
+
+
+	private CharParser createParser(int factoryIdx) {
+		var pools = this.parserPools;
+		if(pools != null) {
+			var pool = pools[factoryIdx];
+			if(pool == null) {
+				pool = pools[factoryIdx] = new ParserPool(this.parserPoolPolicy);
+			}
+			var parser = pool.take();
+			return parser != null ? parser : this.conditionParserFactories[factoryIdx].createUnpooledParser();
+		}
+		return this.conditionParserFactories[factoryIdx].createParser();
+	}
+
+
+	private void returnParser(int factoryIdx, CharParser parser) {
+		var pools = this.parserPools;
+		if(pools == null) {
+			this.conditionParserFactories[factoryIdx].returnParser(parser);
+			return;
+		}
+		// parsers are always created before they're returned, so the pool exists
+		pools[factoryIdx].offer(parser);
+	}
+
+
+	/**
+	 * @param parser the parser which matched the token, or null if the token wasn't matched by a parser (for example a literal DFA match)
+	 */
+	private TextFragmentRef consumeToken(TextFragmentRef frag, int factoryIdx, CharParser parser) {
 		int off = frag.getOffsetStart();
 
-		consumer.accept(off, frag.getOffsetEnd() - off, frag.getLineStart(), frag.getColumnStart(), frag.getLineEnd(), frag.getColumnEnd());
+		var tokenBuffer = this.tokenBuffer;
+		if(tokenBuffer != null) {
+			// only type check the parser when spans are being recorded
+			if(tokenBuffer.spans != null && parser instanceof SpanCharParser) {
+				var spans = ((SpanCharParser)parser).getSpans();
+				if(spans != null) {
+					tokenBuffer.spans.addAll(spans);
+				}
+			}
+			tokenBuffer.add(factoryIdx, off, frag.getOffsetEnd() - off, frag.getLineStart(), frag.getColumnStart(), frag.getLineEnd(), frag.getColumnEnd());
+		}
+		else {
+			this.conditionConsumers[factoryIdx].accept(off, frag.getOffsetEnd() - off, frag.getLineStart(), frag.getColumnStart(), frag.getLineEnd(), frag.getColumnEnd());
+		}
 		return frag;
 	}
 
+
+	private static ArrayList<CharParserFactory> keys(Collection<? extends Entry<CharParserFactory, TextFragmentConsumer>> conditions) {
+		var res = new ArrayList<CharParserFactory>(conditions.size());
+		for(var cond : conditions) {
+			res.add(cond.getKey());
+		}
+		return res;
+	}
+
+
+	private static TextFragmentConsumer[] values(Collection<? extends Entry<CharParserFactory, TextFragmentConsumer>> conditions) {
+		var res = new TextFragmentConsumer[conditions.size()];
+		int i = 0;
+		for(var cond : conditions) {
+			res[i++] = cond.getValue();
+		}
+		return res;
+	}
+
 }
@@ -22,4 +22,23 @@ public interface CharParserFactory extends ParserFactory<CharParser> {
 	 */
 	public boolean isMatch(char ch, TextParser buf);
 
+
+	/** Get the distinct characters which {@link #isMatch(char, TextParser)} returns true for, if this factory's
+	 * precondition can be represented as a set of characters
+	 * @return an array of distinct first chars, or null if this factory's {@link #isMatch(char, TextParser)}
+	 * cannot be described by a list of characters
+	 */
+	public default char[] getFirstChars() {
+		return null;
+	}
+
+
+	/** Create a new parser without using or modifying any pool of recycled parsers this factory may have.
+	 * This must be thread safe, it is used by {@link TokenizerSpec} sessions which share factories between threads and pool parsers themselves.
+	 * @return a new parser, equivalent to {@link #createParser()}
+	 */
+	public default CharParser createUnpooledParser() {
+		return createParser();
+	}
+
 }
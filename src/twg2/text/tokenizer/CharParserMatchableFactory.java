@@ -1,10 +1,12 @@
 package twg2.text.tokenizer;
 
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
-import twg2.collections.dataStructures.Bag;
 import twg2.collections.primitiveCollections.CharArrayList;
-import twg2.collections.primitiveCollections.CharListSorted;
 import twg2.parser.condition.text.CharParser;
 import twg2.parser.condition.text.CharParserMatchable;
 import twg2.parser.condition.text.CharParserPredicate;
@@ -20,13 +22,16 @@ public class CharParserMatchableFactory<P extends CharParser> implements CharPar
 	String name;
 	P[] conditions;
 	CharParserPredicate[] firstCharConds;
+	/** the distinct first chars of all 'conditions' or null if they can't be determined */
+	char[] firstChars;
 	CharParser conditionSet;
 	boolean compound;
 
 
 	@SuppressWarnings("unchecked")
 	public CharParserMatchableFactory(String name, boolean compound, CharParserMatchable... parsers) {
-		this(name, compound, getOrCreateFirstCharPredicates(parsers, 200), (P[])parsers);
+		this(name, compound, getOrCreateFirstCharPredicates(parsers), (P[])parsers);
+		this.firstChars = toArrayOrNull(getDistinctFirstChars(parsers));
 	}
 
 
@@ -79,12 +84,28 @@ public class CharParserMatchableFactory<P extends CharParser> implements CharPar
 	}
 
 
+	/**
+	 * @return the distinct first chars of this factory's parsers if this factory was created from {@link CharParserMatchable}s
+	 * which all implement {@link CharParserMatchable#getFirstChars()}, else null
+	 */
+	@Override
+	public char[] getFirstChars() {
+		return firstChars;
+	}
+
+
 	@Override
 	public CharParser createParser() {
 		return conditionSet.copy();
 	}
 
 
+	@Override
+	public CharParser createUnpooledParser() {
+		return conditionSet.copy();
+	}
+
+
 	@Override
 	public void returnParser(CharParser parser) {
 		// do nothing
@@ -103,79 +124,65 @@ public class CharParserMatchableFactory<P extends CharParser> implements CharPar
 
 
 	/** Check if an array of {@link CharParserMatchable}'s all implement {@link CharParserMatchable#getFirstChars() getFirstChars()) (return non-null values).
-	 * If so, build a distinct list of all the first chars from the char parsers and create a {@link CharParserPredicate} optimized for the number of first chars.
-	 * If some of the char parsers don't implement {@code getFirstChars()} or there are too many unique first chars then just return the array of
+	 * If so, build a distinct list of all the first chars from the char parsers and create a {@link CharParserPredicate} (a {@link CharBitSet}
+	 * for more than two chars) which matches any of them.
+	 * If some of the char parsers don't implement {@code getFirstChars()} then just return the array of
 	 * {@link CharParserMatchable#getFirstCharMatcher() getFirstCharMatcher()} results from the char parsers.
 	 * @param charParsers the char parsers array, all elements are expected to be non-null
-	 * @param maxFirstChars the maximum number of distinct first chars to optimize for, if there are more first chars, return the array of
-	 * {@code getFirstCharMatcher()}'s retrieved from the char parsers.
 	 * @return an array of first chars predicates, the array may contain a single optimized predicate to handle all the first chars, or simply the results
 	 * array from calling {@code getFirstCharMatcher()} on all the char parsers. 
 	 */
+	public static CharParserPredicate[] getOrCreateFirstCharPredicates(CharParserMatchable[] charParsers) {
+		var allFirstChars = getDistinctFirstChars(charParsers);
+
+		// if all of the char parsers have a list of beginning chars, then create a composite first char matching predicate
+		if(allFirstChars != null) {
+			return new CharParserPredicate[] { CharBitSet.matcherFor(allFirstChars.toArray()) };
+		}
+		else {
+			return getFirstCharMatchers(charParsers);
+		}
+	}
+
+
+	/**
+	 * @deprecated {@code maxFirstChars} is ignored, {@link CharBitSet} lookups take constant time for any number of first chars,
+	 * use {@link #getOrCreateFirstCharPredicates(CharParserMatchable[])}
+	 */
+	@Deprecated
 	public static CharParserPredicate[] getOrCreateFirstCharPredicates(CharParserMatchable[] charParsers, int maxFirstChars) {
-		var allHaveFirstChars = true;
+		return getOrCreateFirstCharPredicates(charParsers);
+	}
 
+
+	/** Gather the distinct {@link CharParserMatchable#getFirstChars() getFirstChars()} from an array of char parsers
+	 * @param charParsers the char parsers array, all elements are expected to be non-null
+	 * @return a list of distinct first chars (in the order encountered) or null if any of the char parsers return null from {@code getFirstChars()}
+	 */
+	public static CharArrayList getDistinctFirstChars(CharParserMatchable[] charParsers) {
 		for(var charParser : charParsers) {
-			var firstChars = charParser.getFirstChars();
-			if(firstChars == null) {
-				allHaveFirstChars = false;
-				break;
+			if(charParser.getFirstChars() == null) {
+				return null;
 			}
 		}
 
-		// if all of the char parsers have a list of beginning chars, then create a composite first char matching predicate
-		if(allHaveFirstChars) {
-			// gather all the distinct first chars from the parsers
-			var allFirstChars = new CharArrayList();
-			for(var charParser : charParsers) {
-				var chars = charParser.getFirstChars();
-				for(int i = 0, size = chars.length; i < size; i++) {
-					char ch = chars[i];
-					// distinct chars
-					if(!allFirstChars.contains(ch)) {
-						allFirstChars.add(ch);
-					}
+		var allFirstChars = new CharArrayList();
+		for(var charParser : charParsers) {
+			var chars = charParser.getFirstChars();
+			for(int i = 0, size = chars.length; i < size; i++) {
+				char ch = chars[i];
+				// distinct chars
+				if(!allFirstChars.contains(ch)) {
+					allFirstChars.add(ch);
 				}
 			}
+		}
+		return allFirstChars;
+	}
 
-			CharParserPredicate allCharsMatcher;
 
-			// create an optimized first char matching predicate based on the number of first chars
-			int count = allFirstChars.size();
-			if(count == 1) {
-				var ch1 = allFirstChars.get(0);
-				allCharsMatcher = (ch, parser) -> {
-					return ch1 == ch;
-				};
-			}
-			else if(count == 2) {
-				var ch1 = allFirstChars.get(0);
-				var ch2 = allFirstChars.get(1);
-				allCharsMatcher = (ch, parser) -> {
-					return ch1 == ch || ch2 == ch;
-				};
-			}
-			else if(count < 20) {
-				allCharsMatcher = (ch, parser) -> {
-					return allFirstChars.contains(ch);
-				};
-			}
-			else if(count <= maxFirstChars) {
-				var sortedFirstChars = new CharListSorted(count);
-				sortedFirstChars.addAll(allFirstChars);
-				allCharsMatcher = (ch, parser) -> {
-					return sortedFirstChars.contains(ch);
-				};
-			}
-			else {
-				return getFirstCharMatchers(charParsers);
-			}
-
-			return new CharParserPredicate[] { allCharsMatcher };
-		}
-		else {
-			return getFirstCharMatchers(charParsers);
-		}
+	private static char[] toArrayOrNull(CharArrayList chars) {
+		return chars != null ? chars.toArray() : null;
 	}
 
 
@@ -192,57 +199,321 @@ public class CharParserMatchableFactory<P extends CharParser> implements CharPar
 
 
 	public static class Reusable<P extends CharParser> extends CharParserMatchableFactory<P> {
-		private static final int maxPoolSize = 100;
+		/** the default pool policy, keeps up to 100 idle parsers */
+		public static final ParserPoolPolicy DEFAULT_POOL_POLICY = ParserPoolPolicy.fixed(100);
 
-		private Bag<CharParser> conditionSetPool;
-		private int reuseCount = 0;
-		private int poolPeekSize = 0;
+		private final ParserPool pool;
 
 
 		@SuppressWarnings("unchecked")
 		public Reusable(String name, boolean compound, CharParserMatchable... parsers) {
-			this(name, compound, getOrCreateFirstCharPredicates(parsers, 200), (P[])parsers);
+			this(name, compound, getOrCreateFirstCharPredicates(parsers), (P[])parsers);
+			super.firstChars = toArrayOrNull(getDistinctFirstChars(parsers));
 		}
 
 
 		@SafeVarargs
 		public Reusable(String name, boolean compound, CharParserPredicate[] firstCharPredicates, P... parsers) {
 			super(name, compound, firstCharPredicates, parsers);
-			this.conditionSetPool = new Bag<>();
+			this.pool = new ParserPool(DEFAULT_POOL_POLICY);
 		}
 
 
 		@Override
 		public CharParser createParser() {
-			int poolSize = conditionSetPool.size();
-			if(poolSize > 0) {
-				var parser = conditionSetPool.remove(poolSize - 1);
-				reuseCount++;
-				return parser;
+			var parser = pool.take();
+			return parser != null ? parser : conditionSet.copy();
+		}
+
+
+		@Override
+		public void returnParser(CharParser parser) {
+			pool.offer(parser);
+		}
+
+
+		/** Set this factory's pool sizing policy, idle parsers in excess of the policy's initial size are released
+		 * @param poolPolicy the policy
+		 */
+		public void setPoolPolicy(ParserPoolPolicy poolPolicy) {
+			pool.setPolicy(poolPolicy);
+		}
+
+
+		public ParserPoolPolicy getPoolPolicy() {
+			return pool.getPolicy();
+		}
+
+
+		/** Let the pool policy shrink this factory's pool if the factory hasn't been used since the last call to this method,
+		 * see {@link ParserPoolPolicy#resizeIdle(int, int, long)}.
+		 * An idle factory receives no requests, so its pool can't shrink on its own, call this periodically from the thread which uses the factory
+		 */
+		public void trimIdle() {
+			pool.trimIdle();
+		}
+
+
+		public int getReuseCount() {
+			return (int)pool.getHits();
+		}
+
+
+		public int getPoolPeekSize() {
+			return pool.getPeakSize();
+		}
+
+
+		/**
+		 * @return a snapshot of this factory's pool statistics
+		 */
+		public ParserPoolStats getPoolStats() {
+			return pool.getStats();
+		}
+
+	}
+
+
+
+
+	/** A thread safe pooling factory which can be shared by many tokenizing threads.
+	 * Each thread pools recycled parsers in a pair of fixed size magazines, a loaded magazine and a previous magazine which is always full or empty.
+	 * When the loaded magazine runs out (or fills up) it is swapped with the previous magazine, only when both are empty (or full) is a magazine
+	 * exchanged with a lock-free shared depot of preallocated slots, so a thread which alternates creating and returning parsers at a magazine
+	 * boundary never touches the depot and {@link #createParser()} and {@link #returnParser(CharParser)} don't allocate or contend with other threads
+	 * except for at most one depot exchange per magazine of parsers.
+	 * Pool statistics are aggregated across all threads.
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	public static class Concurrent<P extends CharParser> extends CharParserMatchableFactory<P> {
+		/** the number of parsers in each magazine */
+		private static final int magazineSize = 32;
+		/** the maximum number of full magazines kept in the shared depot */
+		private static final int maxDepotMagazines = 64;
+
+		private final ThreadLocal<MagazineHolder> magazines = ThreadLocal.withInitial(MagazineHolder::new);
+		private final MagazineDepot fullMagazines = new MagazineDepot(maxDepotMagazines);
+		private final MagazineDepot emptyMagazines = new MagazineDepot(maxDepotMagazines);
+		private final AtomicInteger depotPeekSize = new AtomicInteger();
+		private final LongAdder reuseCount = new LongAdder();
+		private final LongAdder createCount = new LongAdder();
+		private final LongAdder recycleCount = new LongAdder();
+		private final LongAdder recycleRejectedCount = new LongAdder();
+
+
+		@SuppressWarnings("unchecked")
+		public Concurrent(String name, boolean compound, CharParserMatchable... parsers) {
+			this(name, compound, getOrCreateFirstCharPredicates(parsers), (P[])parsers);
+			super.firstChars = toArrayOrNull(getDistinctFirstChars(parsers));
+		}
+
+
+		@SafeVarargs
+		public Concurrent(String name, boolean compound, CharParserPredicate[] firstCharPredicates, P... parsers) {
+			super(name, compound, firstCharPredicates, parsers);
+		}
+
+
+		@Override
+		public CharParser createParser() {
+			var holder = magazines.get();
+			var mag = holder.loaded;
+			if(mag.size == 0) {
+				var prev = holder.previous;
+				if(prev.size > 0) {
+					// the previous magazine is full, swap it in
+					holder.previous = mag;
+					holder.loaded = mag = prev;
+				}
+				else {
+					// both magazines are empty, exchange one of them for a full magazine from the depot
+					var full = fullMagazines.pop();
+					if(full != null) {
+						emptyMagazines.push(prev);
+						holder.previous = mag;
+						holder.loaded = mag = full;
+					}
+				}
 			}
+			if(mag.size > 0) {
+				reuseCount.increment();
+				return mag.pop();
+			}
+			createCount.increment();
 			return conditionSet.copy();
 		}
 
 
 		@Override
 		public void returnParser(CharParser parser) {
-			int poolSize = conditionSetPool.size();
-			if(poolSize <= maxPoolSize) {
-				if(parser.canRecycle()) {
-					conditionSetPool.add(parser.recycle());
-					poolPeekSize = Math.max(poolPeekSize, poolSize + 1);
+			if(!parser.canRecycle()) {
+				recycleRejectedCount.increment();
+				return;
+			}
+			var holder = magazines.get();
+			var mag = holder.loaded;
+			if(mag.size == magazineSize) {
+				var prev = holder.previous;
+				if(prev.size == 0) {
+					// the previous magazine is empty, swap it in
+					holder.previous = mag;
+					holder.loaded = mag = prev;
+				}
+				else {
+					// both magazines are full, move the previous magazine to the depot, if the depot is full let the parser be garbage collected
+					int depotSize = fullMagazines.push(prev);
+					if(depotSize < 0) {
+						recycleRejectedCount.increment();
+						return;
+					}
+					depotPeekSize.accumulateAndGet(depotSize * magazineSize, Math::max);
+					var empty = emptyMagazines.pop();
+					holder.previous = mag;
+					holder.loaded = mag = (empty != null ? empty : new Magazine());
 				}
 			}
+			mag.push(parser.recycle());
+			recycleCount.increment();
 		}
 
 
+		/**
+		 * @return the number of parsers reused from a pool, across all threads
+		 */
 		public int getReuseCount() {
-			return reuseCount;
+			return reuseCount.intValue();
 		}
 
 
+		/**
+		 * @return the number of new parsers created because no pooled parser was available, across all threads
+		 */
+		public int getCreateCount() {
+			return createCount.intValue();
+		}
+
+
+		/**
+		 * @return the peak number of parsers held in the shared depot
+		 */
 		public int getPoolPeekSize() {
-			return poolPeekSize;
+			return depotPeekSize.get();
+		}
+
+
+		/**
+		 * @return a snapshot of this factory's pool statistics across all threads, idle counts only include the shared depot
+		 * and the in use count is not tracked
+		 */
+		public ParserPoolStats getPoolStats() {
+			return new ParserPoolStats(reuseCount.sum(), createCount.sum(), recycleCount.sum(), recycleRejectedCount.sum(), 0,
+					fullMagazines.size() * magazineSize, maxDepotMagazines * magazineSize, depotPeekSize.get(), 0);
+		}
+
+
+
+
+		/** A fixed size stack of recycled parsers
+		 * @author TeamworkGuy2
+		 * @since 2026-10-17
+		 */
+		static class Magazine {
+			final CharParser[] parsers = new CharParser[magazineSize];
+			int size;
+
+
+			void push(CharParser parser) {
+				parsers[size++] = parser;
+			}
+
+
+			CharParser pop() {
+				var parser = parsers[--size];
+				parsers[size] = null;
+				return parser;
+			}
+
+		}
+
+
+
+
+		/** A thread's magazines, 'previous' is always full or empty
+		 * @author TeamworkGuy2
+		 * @since 2026-10-17
+		 */
+		static class MagazineHolder {
+			Magazine loaded = new Magazine();
+			Magazine previous = new Magazine();
+		}
+
+
+
+
+		/** A bounded lock-free set of magazines shared by all threads, stored in preallocated slots which are claimed and released with CAS,
+		 * so storing and taking a magazine doesn't allocate and the capacity can't be exceeded by racing threads.
+		 * Each search starts at a random slot to spread threads across the slots.
+		 * @author TeamworkGuy2
+		 * @since 2026-10-17
+		 */
+		static class MagazineDepot {
+			private final AtomicReferenceArray<Magazine> slots;
+			/** the number of magazines in the depot, updated after each slot is claimed or released, so it may briefly lag the slots */
+			private final AtomicInteger size = new AtomicInteger();
+
+
+			MagazineDepot(int capacity) {
+				this.slots = new AtomicReferenceArray<>(capacity);
+			}
+
+
+			/** Store a magazine in an empty slot
+			 * @return the number of magazines in the depot after storing {@code mag}, or -1 if the depot is full
+			 */
+			int push(Magazine mag) {
+				var slots = this.slots;
+				int capacity = slots.length();
+				if(size.get() >= capacity) {
+					return -1;
+				}
+				int start = ThreadLocalRandom.current().nextInt(capacity);
+				for(int i = 0; i < capacity; i++) {
+					int idx = (start + i) % capacity;
+					if(slots.get(idx) == null && slots.compareAndSet(idx, null, mag)) {
+						return size.incrementAndGet();
+					}
+				}
+				return -1;
+			}
+
+
+			/** Take a magazine from the depot
+			 * @return a magazine or null if the depot is empty
+			 */
+			Magazine pop() {
+				if(size.get() <= 0) {
+					return null;
+				}
+				var slots = this.slots;
+				int capacity = slots.length();
+				int start = ThreadLocalRandom.current().nextInt(capacity);
+				for(int i = 0; i < capacity; i++) {
+					int idx = (start + i) % capacity;
+					var mag = slots.get(idx);
+					if(mag != null && slots.compareAndSet(idx, mag, null)) {
+						size.decrementAndGet();
+						return mag;
+					}
+				}
+				return null;
+			}
+
+
+			int size() {
+				return Math.max(size.get(), 0);
+			}
+
 		}
 
 	}
@@ -0,0 +1,112 @@
+package twg2.text.tokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import twg2.functions.predicates.CharPredicate;
+import twg2.parser.textParser.TextParser;
+
+/** Finds the end of a run of chars which match a {@link CharClass}.<br>
+ * Latin-1 bytes (see {@link MappedFileText.ByteCharSequence}) are scanned eight at a time (SWAR, SIMD within a register) by testing
+ * all eight bytes of a {@code long} against each of the class's ASCII ranges with a few adds and masks, words containing non-ASCII bytes
+ * and other sources are scanned one char at a time with the class's lookup table.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public final class CharRunScanner {
+	static final long ONES = 0x0101010101010101L;
+	static final long HIGHS = 0x8080808080808080L;
+
+
+	/** Advance {@code buf} over the chars after its current position which match {@code chars}, using {@link RunTextParser#nextRun(CharClass)} when possible
+	 * @return the number of chars advanced over, {@code buf} is positioned at the last of them (or unchanged if the result is 0)
+	 */
+	public static int nextRun(TextParser buf, CharPredicate chars) {
+		if(chars instanceof CharClass && buf instanceof RunTextParser) {
+			return ((RunTextParser)buf).nextRun((CharClass)chars);
+		}
+		int count = 0;
+		while(buf.hasNext()) {
+			if(!chars.test(buf.nextChar())) {
+				buf.unread(1);
+				break;
+			}
+			count++;
+		}
+		return count;
+	}
+
+
+	/**
+	 * @return the index of the first char in {@code [off, end)} which is not in {@code chars}, {@code end} if they all are
+	 */
+	public static int scan(CharSequence src, int off, int end, CharClass chars) {
+		if(src instanceof MappedFileText.ByteCharSequence) {
+			var bytes = (MappedFileText.ByteCharSequence)src;
+			return scan(bytes.buf, bytes.off + off, bytes.off + end, chars) - bytes.off;
+		}
+		var table = chars.table;
+		for(int i = off; i < end; i++) {
+			if(!table.contains(src.charAt(i))) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+
+	/**
+	 * @return the index of the first char in {@code [off, end)} which is not in {@code chars}, {@code end} if they all are
+	 */
+	public static int scan(char[] src, int off, int end, CharClass chars) {
+		var table = chars.table;
+		for(int i = off; i < end; i++) {
+			if(!table.contains(src[i])) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+
+	/**
+	 * @param src Latin-1 bytes, one char per byte
+	 * @return the index of the first byte in {@code [off, end)} which is not in {@code chars}, {@code end} if they all are
+	 */
+	public static int scan(ByteBuffer src, int off, int end, CharClass chars) {
+		var table = chars.table;
+		var ranges = chars.swarRanges;
+		boolean bigEndian = src.order() == ByteOrder.BIG_ENDIAN;
+		int i = off;
+		if(ranges != null) {
+			for(; i + 8 <= end; i += 8) {
+				long word = src.getLong(i);
+				if((word & HIGHS) != 0) {
+					// non-ASCII bytes, check this word one byte at a time
+					for(int j = i, wordEnd = i + 8; j < wordEnd; j++) {
+						if(!table.contains((char)(src.get(j) & 0xFF))) {
+							return j;
+						}
+					}
+					continue;
+				}
+				// the high bit of each byte in 'in' is set if the byte is in one of the ranges
+				long in = 0;
+				for(int r = 0, size = ranges.length; r < size; r += 2) {
+					in |= (word + ranges[r]) & ~(word + ranges[r + 1]);
+				}
+				long miss = ~in & HIGHS;
+				if(miss != 0) {
+					return i + ((bigEndian ? Long.numberOfLeadingZeros(miss) : Long.numberOfTrailingZeros(miss)) >>> 3);
+				}
+			}
+		}
+		for(; i < end; i++) {
+			if(!table.contains((char)(src.get(i) & 0xFF))) {
+				return i;
+			}
+		}
+		return end;
+	}
+
+}
@@ -0,0 +1,419 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import twg2.parser.textParser.LineNumbers;
+import twg2.parser.textParser.TextParser;
+
+/** Tokenize a document with {@link CharMultiConditionParser} and incrementally re-tokenize it after small edits.<br>
+ * While parsing, the offsets where the parser's compound parser stack is empty ({@link CharMultiConditionParser#getCompoundParserDepth()} is 0)
+ * are recorded as safe restart points along with the furthest offset read before each point.
+ * An edit re-tokenizes from the last safe point whose preceding tokens never read past the start of the edit, and stops once the new parse reaches
+ * a line start after the edit where both the new and old parse were at a safe point, the rest of the old tokens are reused (shifted by the edit's length and line count).
+ * The parser starts directly at the restart point (see {@link IndexedTextParser}) and the token and safe point buffers are updated in place.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class IncrementalTokenizer {
+	private final TokenizerSpec spec;
+	private String text;
+	private LineStartIndex lines;
+	private TokenBuffer tokens;
+	/** the offset of the char being parsed when each token was produced */
+	private int[] tokenBoundaries;
+	/** sorted offsets where the parser had an empty compound parser stack before parsing the char at that offset */
+	private int[] safeOffsets;
+	/** the furthest offset read by the parser before each 'safeOffsets' point */
+	private int[] safeReadMax;
+	private int safeCount;
+	/** the tokens, boundaries, and safe points produced by the current parse, spliced into the document's buffers once the parse finishes */
+	private TokenBuffer newTokens;
+	private int[] newBoundaries;
+	private int[] newSafeOffsets;
+	private int[] newSafeReadMax;
+	private int newSafeCount;
+
+
+	/**
+	 * @param compileLiterals see {@link TokenizerSpec#TokenizerSpec(boolean, java.util.Collection)}
+	 * @param factories the factories, in priority order, each token's factory index is the factory's index in this list
+	 */
+	public IncrementalTokenizer(boolean compileLiterals, List<? extends CharParserFactory> factories) {
+		this.spec = new TokenizerSpec(compileLiterals, factories);
+		this.newTokens = new TokenBuffer();
+		this.newBoundaries = new int[64];
+		this.newSafeOffsets = new int[64];
+		this.newSafeReadMax = new int[64];
+	}
+
+
+	public String getText() {
+		return text;
+	}
+
+
+	/**
+	 * @return the current tokens, replaced by each call to {@link #tokenize(CharSequence)} and updated in place by {@link #edit(int, int, CharSequence)}
+	 */
+	public TokenBuffer getTokens() {
+		return tokens;
+	}
+
+
+	/** Tokenize a whole document, replacing any previous document
+	 * @return the document's tokens
+	 */
+	public TokenBuffer tokenize(CharSequence text) {
+		this.text = text.toString();
+		this.lines = LineStartIndex.of(this.text);
+		clearNew();
+		parseFrom(0, -1, Integer.MAX_VALUE, null);
+
+		this.tokens = this.newTokens;
+		this.tokenBoundaries = this.newBoundaries;
+		this.safeOffsets = this.newSafeOffsets;
+		this.safeReadMax = this.newSafeReadMax;
+		this.safeCount = this.newSafeCount;
+		this.newTokens = new TokenBuffer();
+		this.newBoundaries = new int[64];
+		this.newSafeOffsets = new int[64];
+		this.newSafeReadMax = new int[64];
+		return tokens;
+	}
+
+
+	/** Apply an edit to the current document and re-tokenize the part of the document affected by the edit.
+	 * The tokens and safe points before and after the re-tokenized range are kept in place, only the ones after the range are moved and shifted
+	 * @param offset the offset of the edit
+	 * @param removedLength the number of chars removed starting at {@code offset}
+	 * @param insertedText the text inserted at {@code offset}
+	 * @return the range of tokens which changed
+	 */
+	public Change edit(int offset, int removedLength, CharSequence insertedText) {
+		var oldText = this.text;
+		int oldLen = oldText.length();
+		if(offset < 0 || removedLength < 0 || offset + removedLength > oldLen) {
+			throw new IndexOutOfBoundsException("edit offset " + offset + ", removed length " + removedLength + ", text length " + oldLen);
+		}
+		int delta = insertedText.length() - removedLength;
+		int lineDelta = countLines(insertedText, 0, insertedText.length()) - countLines(oldText, offset, offset + removedLength);
+
+		// the last safe point where none of the preceding tokens read any of the edited text, the first safe point (offset 0) always qualifies
+		int restartIdx = lastIndexAtOrBefore(safeOffsets, safeCount, offset);
+		while(safeReadMax[restartIdx] >= offset) {
+			restartIdx--;
+		}
+		int restart = safeOffsets[restartIdx];
+		int oldTokenCnt = tokens.size();
+		int keepTokens = indexOfFirstBoundary(tokenBoundaries, oldTokenCnt, restart);
+
+		this.text = new StringBuilder(oldLen + delta).append(oldText, 0, offset).append(insertedText).append(oldText, offset + removedLength, oldLen).toString();
+		this.lines.edit(offset, removedLength, insertedText);
+		clearNew();
+
+		var sync = new SyncState(delta);
+		parseFrom(restart, safeReadMax[restartIdx], offset + insertedText.length(), sync);
+
+		// the old tokens and safe points from the sync point onward are still valid, shifted by the edit
+		int oldEnd = oldTokenCnt;
+		int oldSafeEnd = safeCount;
+		if(sync.safeIdx > -1) {
+			oldEnd = indexOfFirstBoundary(tokenBoundaries, oldTokenCnt, safeOffsets[sync.safeIdx]);
+			oldSafeEnd = sync.safeIdx;
+		}
+		spliceBoundaries(keepTokens, oldEnd, oldTokenCnt, delta);
+		tokens.splice(keepTokens, oldEnd, newTokens, delta, lineDelta);
+		spliceSafePoints(restartIdx, oldSafeEnd, delta, sync.readMax);
+
+		return new Change(keepTokens, oldEnd, keepTokens + newTokens.size());
+	}
+
+
+	/** Parse the current text starting at {@code start} with an empty parser state, adding tokens and safe points to the 'new*' buffers.
+	 * If {@code old} is not null, stop once the new parse synchronizes with the old parse after {@code editEnd}
+	 */
+	private void parseFrom(int start, int readMax, int editEnd, SyncState old) {
+		var text = this.text;
+		var tokens = this.newTokens;
+		var parser = this.spec.newSession(null, tokens);
+		var buf = new ReadTrackingTextParser(new IndexedTextParser(text, lines, start), readMax);
+
+		while(buf.hasNext()) {
+			int x = buf.getPosition() + 1;
+			if(parser.getCompoundParserDepth() == 0) {
+				// the text before a line start after the edit is the same in the old and new text, so the following tokens only differ by line number
+				if(old != null && x > editEnd && text.charAt(x - 1) == '\n') {
+					int oldX = x - old.delta;
+					int k = Arrays.binarySearch(safeOffsets, 0, safeCount, oldX);
+					if(k > -1) {
+						old.safeIdx = k;
+						old.readMax = buf.maxPos;
+						return;
+					}
+				}
+				addNewSafePoint(x, buf.maxPos);
+			}
+
+			char ch = buf.nextChar();
+			int boundary = buf.getPosition();
+			int prevSize = tokens.size();
+			parser.parse(ch, buf);
+			int size = tokens.size();
+			if(size > prevSize) {
+				if(size > newBoundaries.length) {
+					newBoundaries = Arrays.copyOf(newBoundaries, Math.max(size, newBoundaries.length * 2));
+				}
+				Arrays.fill(this.newBoundaries, prevSize, size, boundary);
+			}
+		}
+		if(parser.getCompoundParserDepth() == 0) {
+			addNewSafePoint(text.length(), buf.maxPos);
+		}
+	}
+
+
+	/** Replace token boundaries {@code [start, end)} with the 'newBoundaries', the boundaries after {@code end} are moved and shifted by {@code delta}
+	 */
+	private void spliceBoundaries(int start, int end, int size, int delta) {
+		int newCnt = newTokens.size();
+		int tail = size - end;
+		int dst = start + newCnt;
+		int newSize = dst + tail;
+		if(newSize > tokenBoundaries.length) {
+			tokenBoundaries = Arrays.copyOf(tokenBoundaries, Math.max(newSize, tokenBoundaries.length * 2));
+		}
+		var boundaries = this.tokenBoundaries;
+		System.arraycopy(boundaries, end, boundaries, dst, tail);
+		for(int i = dst; i < newSize; i++) {
+			boundaries[i] += delta;
+		}
+		System.arraycopy(newBoundaries, 0, boundaries, start, newCnt);
+	}
+
+
+	/** Replace safe points {@code [start, end)} with the 'newSafe*' points, the safe points after {@code end} are moved and shifted by {@code delta}
+	 * @param readMax the furthest offset read by the new parse
+	 */
+	private void spliceSafePoints(int start, int end, int delta, int readMax) {
+		int newCnt = this.newSafeCount;
+		int tail = safeCount - end;
+		int dst = start + newCnt;
+		int newSize = dst + tail;
+		if(newSize > safeOffsets.length) {
+			safeOffsets = Arrays.copyOf(safeOffsets, Math.max(newSize, safeOffsets.length * 2));
+			safeReadMax = Arrays.copyOf(safeReadMax, safeOffsets.length);
+		}
+		var offsets = this.safeOffsets;
+		var readMaxes = this.safeReadMax;
+		System.arraycopy(offsets, end, offsets, dst, tail);
+		System.arraycopy(readMaxes, end, readMaxes, dst, tail);
+		for(int i = dst; i < newSize; i++) {
+			offsets[i] += delta;
+			// conservative, the old read max may have come from before the edit
+			readMaxes[i] = Math.max(readMax, readMaxes[i] + delta);
+		}
+		System.arraycopy(newSafeOffsets, 0, offsets, start, newCnt);
+		System.arraycopy(newSafeReadMax, 0, readMaxes, start, newCnt);
+		this.safeCount = newSize;
+	}
+
+
+	private void addNewSafePoint(int offset, int readMax) {
+		int i = newSafeCount;
+		if(i == newSafeOffsets.length) {
+			newSafeOffsets = Arrays.copyOf(newSafeOffsets, i * 2);
+			newSafeReadMax = Arrays.copyOf(newSafeReadMax, i * 2);
+		}
+		newSafeOffsets[i] = offset;
+		newSafeReadMax[i] = readMax;
+		newSafeCount = i + 1;
+	}
+
+
+	private void clearNew() {
+		newTokens.clear();
+		newSafeCount = 0;
+	}
+
+
+	/**
+	 * @return the index of the first token produced while parsing the char at or after {@code offset}
+	 */
+	private static int indexOfFirstBoundary(int[] boundaries, int size, int offset) {
+		int lo = 0;
+		int hi = size;
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(boundaries[mid] < offset) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+
+	/**
+	 * @return the index of the last value {@code <= value} in the sorted array, the first value must be {@code <= value}
+	 */
+	private static int lastIndexAtOrBefore(int[] values, int size, int value) {
+		int idx = Arrays.binarySearch(values, 0, size, value);
+		return idx > -1 ? idx : -(idx + 1) - 1;
+	}
+
+
+	private static int countLines(CharSequence text, int start, int end) {
+		int cnt = 0;
+		for(int i = start; i < end; i++) {
+			if(text.charAt(i) == '\n') {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+
+
+
+
+	/** The range of tokens which changed due to an edit, tokens before {@code start} are unchanged
+	 * and tokens after the range are the same except for their offsets and line numbers
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	public static class Change {
+		/** the index of the first changed token in the old and new token lists */
+		public final int start;
+		/** the exclusive end index of the replaced tokens in the old token list */
+		public final int oldEnd;
+		/** the exclusive end index of the replacement tokens in the new token list */
+		public final int newEnd;
+
+
+		public Change(int start, int oldEnd, int newEnd) {
+			this.start = start;
+			this.oldEnd = oldEnd;
+			this.newEnd = newEnd;
+		}
+
+
+		@Override
+		public String toString() {
+			return "[" + start + ", " + oldEnd + ") -> [" + start + ", " + newEnd + ")";
+		}
+
+	}
+
+
+
+
+	/** The sync point found while re-tokenizing an edit
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	static class SyncState {
+		final int delta;
+		/** the index of the old safe point where the new parse synchronized with the old parse, -1 if it didn't */
+		int safeIdx = -1;
+		/** the furthest offset read by the new parse before the sync point */
+		int readMax;
+
+
+		SyncState(int delta) {
+			this.delta = delta;
+		}
+
+	}
+
+
+
+
+	/** A {@link TextParser} which tracks the furthest position read from another parser, reaching the end of the input counts as reading the position after the last char
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	static class ReadTrackingTextParser implements TextParser {
+		private final TextParser src;
+		int maxPos;
+
+
+		ReadTrackingTextParser(TextParser src, int maxPos) {
+			this.src = src;
+			this.maxPos = maxPos;
+		}
+
+
+		@Override
+		public boolean hasNext() {
+			boolean hasNext = src.hasNext();
+			if(!hasNext) {
+				// the result depends on the length of the text
+				maxPos = Math.max(maxPos, src.getPosition() + 1);
+			}
+			return hasNext;
+		}
+
+
+		@Override
+		public char nextChar() {
+			char ch = src.nextChar();
+			int pos = src.getPosition();
+			if(pos > maxPos) {
+				maxPos = pos;
+			}
+			return ch;
+		}
+
+
+		@Override
+		public void unread(int count) {
+			src.unread(count);
+		}
+
+
+		@Override
+		public boolean hasPrevChar() {
+			return src.hasPrevChar();
+		}
+
+
+		@Override
+		public char prevChar() {
+			return src.prevChar();
+		}
+
+
+		@Override
+		public LineNumbers getLineNumbers() {
+			return src.getLineNumbers();
+		}
+
+
+		@Override
+		public String getPositionDisplayText() {
+			return src.getPositionDisplayText();
+		}
+
+
+		@Override
+		public int getPosition() {
+			return src.getPosition();
+		}
+
+
+		@Override
+		public int getLineNumber() {
+			return src.getLineNumber();
+		}
+
+
+		@Override
+		public int getColumnNumber() {
+			return src.getColumnNumber();
+		}
+
+	}
+
+}
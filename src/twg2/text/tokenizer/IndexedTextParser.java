@@ -0,0 +1,146 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.textParser.LineNumbers;
+import twg2.parser.textParser.TextParser;
+
+/** A {@link TextParser} over a {@link CharSequence} which can start at any offset in the text, line and column numbers come from a {@link LineStartIndex} of the text.<br>
+ * Starting at an offset is O(log lines) instead of reading every char before the offset, so sections of a document (chunks of a {@link ParallelTokenizer}
+ * or the text after an {@link IncrementalTokenizer} edit) can be parsed independently and report the same coordinates as a parser over the whole document.
+ * The current line is tracked as chars are read, so {@link #getLineNumber()} and {@link #getColumnNumber()} don't search the index.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class IndexedTextParser implements RunTextParser {
+	private final CharSequence src;
+	private final int len;
+	private final LineStartIndex lines;
+	/** the offset of the last char returned by nextChar(), 'start - 1' before the first char */
+	private int pos;
+	/** the 1-based line number of 'pos' */
+	private int line;
+	private int lineStart;
+	/** the offset of the start of the line after 'line', {@link Integer#MAX_VALUE} on the last line */
+	private int nextLineStart;
+
+
+	/**
+	 * @param src the text
+	 * @param lines the line start index of {@code src}
+	 * @param start the offset of the first char returned by {@link #nextChar()}
+	 */
+	public IndexedTextParser(CharSequence src, LineStartIndex lines, int start) {
+		if(start < 0 || start > src.length()) {
+			throw new IndexOutOfBoundsException("start " + start + ", text length " + src.length());
+		}
+		this.src = src;
+		this.len = src.length();
+		this.lines = lines;
+		this.pos = start - 1;
+		seekLine();
+	}
+
+
+	@Override
+	public boolean hasNext() {
+		return pos + 1 < len;
+	}
+
+
+	@Override
+	public char nextChar() {
+		char ch = src.charAt(++pos);
+		if(pos >= nextLineStart) {
+			advanceLines();
+		}
+		return ch;
+	}
+
+
+	@Override
+	public int nextRun(CharClass chars) {
+		int start = pos + 1;
+		int end = CharRunScanner.scan(src, start, len, chars);
+		pos = end - 1;
+		if(pos >= nextLineStart) {
+			advanceLines();
+		}
+		return end - start;
+	}
+
+
+	@Override
+	public void unread(int count) {
+		if(count > pos + 1) {
+			throw new IllegalArgumentException("cannot unread " + count + " chars from position " + pos);
+		}
+		pos -= count;
+		if(pos < lineStart) {
+			seekLine();
+		}
+	}
+
+
+	@Override
+	public boolean hasPrevChar() {
+		return pos > 0;
+	}
+
+
+	@Override
+	public char prevChar() {
+		return src.charAt(pos - 1);
+	}
+
+
+	/** Not supported, use the {@link LineStartIndex} this parser was created with
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public LineNumbers getLineNumbers() {
+		throw new UnsupportedOperationException("line numbers lookups are not supported by an indexed parser, use its line start index");
+	}
+
+
+	@Override
+	public String getPositionDisplayText() {
+		return "position " + pos + ", line " + line + ", column " + getColumnNumber();
+	}
+
+
+	@Override
+	public int getPosition() {
+		return pos;
+	}
+
+
+	@Override
+	public int getLineNumber() {
+		return line;
+	}
+
+
+	@Override
+	public int getColumnNumber() {
+		return pos - lineStart + 1;
+	}
+
+
+	private void advanceLines() {
+		var lines = this.lines;
+		int lineCnt = lines.getLineCount();
+		while(pos >= nextLineStart) {
+			line++;
+			lineStart = nextLineStart;
+			nextLineStart = line < lineCnt ? lines.getLineStart(line + 1) : Integer.MAX_VALUE;
+		}
+	}
+
+
+	private void seekLine() {
+		var lines = this.lines;
+		line = lines.getLineNumber(Math.max(pos, 0));
+		lineStart = lines.getLineStart(line);
+		nextLineStart = line < lines.getLineCount() ? lines.getLineStart(line + 1) : Integer.MAX_VALUE;
+	}
+
+}
@@ -0,0 +1,134 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+
+/** The offset of the start of each line in a document, built once in a single pass over the text.
+ * Answers line and column number queries for any offset in O(log lines), for use with {@link OffsetsOnlyTextParser}.
+ * Line and column numbers are 1-based and lines end after each '\n' char, the same as a {@code TextParser}'s numbering.
+ * An index can be updated in place after an edit to its text with {@link #edit(int, int, CharSequence)}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class LineStartIndex {
+	private int[] lineStarts;
+	private int lineCount;
+
+
+	private LineStartIndex(int[] lineStarts, int lineCount) {
+		this.lineStarts = lineStarts;
+		this.lineCount = lineCount;
+	}
+
+
+	public int getLineCount() {
+		return lineCount;
+	}
+
+
+	/**
+	 * @param lineNumber a 1-based line number
+	 * @return the offset of the first char in the line
+	 */
+	public int getLineStart(int lineNumber) {
+		if(lineNumber < 1 || lineNumber > lineCount) {
+			throw new IndexOutOfBoundsException("line " + lineNumber + ", line count " + lineCount);
+		}
+		return lineStarts[lineNumber - 1];
+	}
+
+
+	/**
+	 * @return the 1-based line number of the char at {@code offset}
+	 */
+	public int getLineNumber(int offset) {
+		int idx = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+		return idx > -1 ? idx + 1 : -(idx + 1);
+	}
+
+
+	/**
+	 * @return the 1-based column number of the char at {@code offset}
+	 */
+	public int getColumnNumber(int offset) {
+		return offset - lineStarts[getLineNumber(offset) - 1] + 1;
+	}
+
+
+	/** Fill in the line and column numbers of the tokens in a buffer from their offsets and lengths,
+	 * for example after tokenizing with an {@link OffsetsOnlyTextParser}
+	 * @param tokens the tokens to update
+	 * @param fromIdx the index of the first token to update
+	 */
+	public void resolve(TokenBuffer tokens, int fromIdx) {
+		var offsets = tokens.getOffsets();
+		var lengths = tokens.getLengths();
+		var lineStartsDst = tokens.getLineStarts();
+		var columnStartsDst = tokens.getColumnStarts();
+		var lineEndsDst = tokens.getLineEnds();
+		var columnEndsDst = tokens.getColumnEnds();
+		for(int i = fromIdx, size = tokens.size(); i < size; i++) {
+			int start = offsets[i];
+			// the end coordinates are the position of the last char in the token
+			int end = start + Math.max(lengths[i] - 1, 0);
+			int startLine = getLineNumber(start);
+			lineStartsDst[i] = startLine;
+			columnStartsDst[i] = start - lineStarts[startLine - 1] + 1;
+			int endLine = getLineNumber(end);
+			lineEndsDst[i] = endLine;
+			columnEndsDst[i] = end - lineStarts[endLine - 1] + 1;
+		}
+	}
+
+
+	/** Update this index after an edit to its text, only the inserted text is scanned, the line starts after the edit are shifted in place
+	 * @param offset the offset of the edit
+	 * @param removedLength the number of chars removed starting at {@code offset}
+	 * @param insertedText the text inserted at {@code offset}
+	 */
+	public void edit(int offset, int removedLength, CharSequence insertedText) {
+		int insertedLen = insertedText.length();
+		int insertedLines = 0;
+		for(int i = 0; i < insertedLen; i++) {
+			if(insertedText.charAt(i) == '\n') {
+				insertedLines++;
+			}
+		}
+		// the line starts in (offset, offset + removedLength] follow a removed '\n'
+		int from = getLineNumber(offset);
+		int to = getLineNumber(offset + removedLength);
+		int tail = lineCount - to;
+		int newCount = from + insertedLines + tail;
+		if(newCount > lineStarts.length) {
+			lineStarts = Arrays.copyOf(lineStarts, Math.max(newCount, lineStarts.length * 2));
+		}
+		var lineStarts = this.lineStarts;
+		int dst = from + insertedLines;
+		System.arraycopy(lineStarts, to, lineStarts, dst, tail);
+		int delta = insertedLen - removedLength;
+		for(int i = dst; i < newCount; i++) {
+			lineStarts[i] += delta;
+		}
+		for(int i = 0, j = from; i < insertedLen; i++) {
+			if(insertedText.charAt(i) == '\n') {
+				lineStarts[j++] = offset + i + 1;
+			}
+		}
+		this.lineCount = newCount;
+	}
+
+
+	public static LineStartIndex of(CharSequence text) {
+		var lineStarts = new int[64];
+		int lineCount = 1;
+		for(int i = 0, size = text.length(); i < size; i++) {
+			if(text.charAt(i) == '\n') {
+				if(lineCount == lineStarts.length) {
+					lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+				}
+				lineStarts[lineCount++] = i + 1;
+			}
+		}
+		return new LineStartIndex(lineStarts, lineCount);
+	}
+
+}
@@ -0,0 +1,201 @@
+package twg2.text.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import twg2.parser.textParser.TextCharsParser;
+import twg2.parser.textParser.TextParser;
+
+/** Memory-mapped file input for {@link CharMultiConditionParser}.<br>
+ * Files which are Latin-1, or ASCII only content in an ASCII compatible encoding (UTF-8 or US-ASCII), are tokenized straight from the mapped buffer
+ * with one char per byte, so token offsets are byte offsets and can be used to slice the mapped region (see {@link ByteCharSequence#slice(int, int)}).
+ * Other files are decoded incrementally from the mapped buffer by a {@link ReaderTextParser}, in which case offsets are char offsets.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class MappedFileText {
+
+	/** Open a file for tokenization
+	 * @param file the file to map
+	 * @param charset the file's encoding
+	 * @param windowSize the {@link ReaderTextParser} window size used if the file has to be decoded
+	 * @return a parser over the mapped file's text
+	 */
+	public static TextParser open(Path file, Charset charset, int windowSize) throws IOException {
+		var text = map(file);
+		if(isOneCharPerByte(text, charset)) {
+			return TextCharsParser.of(text);
+		}
+		return new ReaderTextParser(new InputStreamReader(new ByteBufferInputStream(text.buf.duplicate()), charset), windowSize);
+	}
+
+
+	public static TextParser open(Path file, Charset charset) throws IOException {
+		return open(file, charset, ReaderTextParser.DEFAULT_WINDOW_SIZE);
+	}
+
+
+	/** Memory-map a file (read-only) and view its bytes as Latin-1 chars. The file's channel is closed once mapped, the mapping stays valid
+	 * until the returned buffer is garbage collected.
+	 * @param file the file to map
+	 * @return the mapped file
+	 */
+	public static ByteCharSequence map(Path file) throws IOException {
+		try(var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if(size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("file too large to map (" + size + " bytes): " + file);
+			}
+			return new ByteCharSequence(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+		}
+	}
+
+
+	/**
+	 * @return true if decoding {@code text}'s bytes with {@code charset} produces exactly one char per byte equal to the byte's Latin-1 value
+	 */
+	public static boolean isOneCharPerByte(ByteCharSequence text, Charset charset) {
+		if(StandardCharsets.ISO_8859_1.equals(charset)) {
+			return true;
+		}
+		if(StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset)) {
+			return text.isAscii();
+		}
+		return false;
+	}
+
+
+
+
+	/** A {@link CharSequence} view of a {@link ByteBuffer} where each byte is one Latin-1 char
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	public static class ByteCharSequence implements CharSequence {
+		final ByteBuffer buf;
+		final int off;
+		final int len;
+
+
+		public ByteCharSequence(ByteBuffer buf) {
+			this(buf, 0, buf.limit());
+		}
+
+
+		public ByteCharSequence(ByteBuffer buf, int off, int len) {
+			this.buf = buf;
+			this.off = off;
+			this.len = len;
+		}
+
+
+		@Override
+		public int length() {
+			return len;
+		}
+
+
+		@Override
+		public char charAt(int index) {
+			if(index < 0 || index >= len) {
+				throw new IndexOutOfBoundsException("index " + index + ", length " + len);
+			}
+			return (char)(buf.get(off + index) & 0xFF);
+		}
+
+
+		@Override
+		public ByteCharSequence subSequence(int start, int end) {
+			if(start < 0 || end > len || start > end) {
+				throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + len);
+			}
+			return new ByteCharSequence(buf, off + start, end - start);
+		}
+
+
+		/**
+		 * @return a read-only view of the bytes {@code [offset, offset + length)}, for example a token's location reported to a {@code TextFragmentConsumer}
+		 */
+		public ByteBuffer slice(int offset, int length) {
+			if(offset < 0 || length < 0 || offset + length > len) {
+				throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", sequence length " + len);
+			}
+			return buf.duplicate().position(off + offset).limit(off + offset + length).slice().asReadOnlyBuffer();
+		}
+
+
+		/**
+		 * @return true if all of the bytes are less than 0x80
+		 */
+		public boolean isAscii() {
+			var buf = this.buf;
+			for(int i = off, end = off + len; i < end; i++) {
+				if(buf.get(i) < 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+
+		@Override
+		public String toString() {
+			var bytes = new byte[len];
+			buf.duplicate().position(off).get(bytes);
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		}
+
+	}
+
+
+
+
+	/** An {@link InputStream} which reads from a {@link ByteBuffer} without copying it
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	static class ByteBufferInputStream extends InputStream {
+		private final ByteBuffer buf;
+
+
+		ByteBufferInputStream(ByteBuffer buf) {
+			this.buf = buf;
+		}
+
+
+		@Override
+		public int read() {
+			return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+		}
+
+
+		@Override
+		public int read(byte[] dst, int off, int len) {
+			if(len == 0) {
+				return 0;
+			}
+			int remaining = buf.remaining();
+			if(remaining == 0) {
+				return -1;
+			}
+			int cnt = Math.min(len, remaining);
+			buf.get(dst, off, cnt);
+			return cnt;
+		}
+
+
+		@Override
+		public int available() {
+			return buf.remaining();
+		}
+
+	}
+
+}
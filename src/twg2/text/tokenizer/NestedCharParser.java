@@ -0,0 +1,29 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textFragment.TextFragmentRef;
+
+/** A compound {@link CharParser} which tracks its own nested levels, for example balanced delimiters, instead of relying on
+ * a new parser being started for each level.<br>
+ * While a nested parser is the innermost in-progress compound parser, {@link CharMultiConditionParser} does not start
+ * a new parser when the factory matches a char, the char is passed to the nested parser which starts a new level.
+ * When a new parser from the same factory is started anyway (because another compound parser was started after the nested parser),
+ * the older nested parser isn't passed any chars until the newer one completes or fails.
+ * Each inner level is reported as its own token via {@link #isLevelComplete()} and the outermost level completes the parser.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface NestedCharParser extends CharParser {
+
+	/**
+	 * @return true if the last char accepted closed an inner level (without completing this parser)
+	 */
+	public boolean isLevelComplete();
+
+
+	/**
+	 * @return the coordinates of the inner level closed by the last char accepted, only valid while {@link #isLevelComplete()} is true
+	 */
+	public TextFragmentRef getLevelMatchedTextCoords();
+
+}
@@ -0,0 +1,107 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.textParser.LineNumbers;
+import twg2.parser.textParser.TextParser;
+
+/** A {@link TextParser} over a {@link CharSequence} which only tracks offsets.
+ * {@link #getLineNumber()} and {@link #getColumnNumber()} always return 0, so parsers which update their coordinates on every char
+ * don't pay for line and column tracking. Use a {@link LineStartIndex} to calculate line and column numbers for the offsets which need them.
+ * Runs of chars are scanned directly from the source (eight bytes at a time for a {@link MappedFileText.ByteCharSequence}), see {@link RunTextParser}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class OffsetsOnlyTextParser implements RunTextParser {
+	private final CharSequence src;
+	private final int len;
+	/** the offset of the last char returned by nextChar(), -1 before the first char */
+	private int pos;
+
+
+	public OffsetsOnlyTextParser(CharSequence src) {
+		this.src = src;
+		this.len = src.length();
+		this.pos = -1;
+	}
+
+
+	@Override
+	public boolean hasNext() {
+		return pos + 1 < len;
+	}
+
+
+	@Override
+	public char nextChar() {
+		return src.charAt(++pos);
+	}
+
+
+	@Override
+	public int nextRun(CharClass chars) {
+		int start = pos + 1;
+		int end = CharRunScanner.scan(src, start, len, chars);
+		pos = end - 1;
+		return end - start;
+	}
+
+
+	@Override
+	public void unread(int count) {
+		if(count > pos + 1) {
+			throw new IllegalArgumentException("cannot unread " + count + " chars from position " + pos);
+		}
+		pos -= count;
+	}
+
+
+	@Override
+	public boolean hasPrevChar() {
+		return pos > 0;
+	}
+
+
+	@Override
+	public char prevChar() {
+		return src.charAt(pos - 1);
+	}
+
+
+	/** Not supported, use a {@link LineStartIndex}
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public LineNumbers getLineNumbers() {
+		throw new UnsupportedOperationException("line numbers are not tracked by an offsets only parser");
+	}
+
+
+	@Override
+	public String getPositionDisplayText() {
+		return "position " + pos;
+	}
+
+
+	@Override
+	public int getPosition() {
+		return pos;
+	}
+
+
+	/**
+	 * @return always 0, line numbers are not tracked
+	 */
+	@Override
+	public int getLineNumber() {
+		return 0;
+	}
+
+
+	/**
+	 * @return always 0, column numbers are not tracked
+	 */
+	@Override
+	public int getColumnNumber() {
+		return 0;
+	}
+
+}
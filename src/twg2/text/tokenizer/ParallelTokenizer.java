@@ -0,0 +1,279 @@
+package twg2.text.tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+
+/** Tokenize a single large document in parallel using {@link CharMultiConditionParser}s.<br>
+ * The document is split into chunks (at line boundaries when possible) and each chunk is tokenized speculatively on a {@link ForkJoinPool},
+ * starting with an empty compound parser stack. Then the chunks are reconciled in order: the true parse state from the end of the previous chunk
+ * is advanced until it reaches an offset where it and the chunk's speculative parse both have an empty compound parser stack,
+ * from that point on the speculative results are identical to a sequential parse and are used as-is.<br>
+ * Each chunk's parser is created by the chunk's task on the pool and starts directly at the chunk's offset, line and column numbers come from
+ * a {@link LineStartIndex} built once per document.<br>
+ * Tokens are buffered per chunk and passed to the consumers, in the same order as a sequential
+ * {@link CharMultiConditionParser}, as soon as the next chunk is reconciled, then the chunk's buffers are released.<br>
+ * {@link CharParserFactory} instances generally aren't thread safe, so each chunk uses either its own set of factories from a supplier
+ * or its own session of a shared {@link TokenizerSpec}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ParallelTokenizer {
+	private final ForkJoinPool pool;
+	private final int chunkSize;
+	/** creates a new parser, which adds tokens to the given buffer, for each chunk */
+	private final Function<TokenBuffer, CharMultiConditionParser> parserFactory;
+	private final TextFragmentConsumer[] consumers;
+
+
+	/**
+	 * @param pool the pool to run chunk tokenization tasks on
+	 * @param chunkSize the approximate number of chars per chunk
+	 * @param factoriesSupplier creates a new list of factories each time it's called, each chunk uses its own factories.
+	 * All of the lists must contain equivalent factories in the same order. It's called concurrently from the pool's threads
+	 * @param consumers the consumers for each factory index, these are only called from the thread which calls {@link #parse(CharSequence)}
+	 */
+	public ParallelTokenizer(ForkJoinPool pool, int chunkSize, Supplier<? extends List<? extends CharParserFactory>> factoriesSupplier, List<? extends TextFragmentConsumer> consumers) {
+		if(chunkSize < 1) {
+			throw new IllegalArgumentException("chunk size must be greater than 0: " + chunkSize);
+		}
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+		this.parserFactory = (tokens) -> new CharMultiConditionParser(null, false, tokens, factoriesSupplier.get());
+		this.consumers = consumers.toArray(new TextFragmentConsumer[consumers.size()]);
+	}
+
+
+	/**
+	 * @param pool the pool to run chunk tokenization tasks on
+	 * @param chunkSize the approximate number of chars per chunk
+	 * @param spec the factories, shared by all chunks, each chunk uses its own session
+	 * @param consumers the consumers for each factory index, these are only called from the thread which calls {@link #parse(CharSequence)}
+	 */
+	public ParallelTokenizer(ForkJoinPool pool, int chunkSize, TokenizerSpec spec, List<? extends TextFragmentConsumer> consumers) {
+		if(chunkSize < 1) {
+			throw new IllegalArgumentException("chunk size must be greater than 0: " + chunkSize);
+		}
+		this.pool = pool;
+		this.chunkSize = chunkSize;
+		this.parserFactory = (tokens) -> spec.newSession(null, tokens);
+		this.consumers = consumers.toArray(new TextFragmentConsumer[consumers.size()]);
+	}
+
+
+	/** Tokenize {@code text} and pass the tokens to this tokenizer's consumers.
+	 * Like a sequential parse, if the document contains an error the consumers have already received the tokens before the chunk containing the error
+	 * @param text the document to tokenize
+	 */
+	public void parse(CharSequence text) {
+		var chunks = createChunks(text, LineStartIndex.of(text));
+		int chunkCnt = chunks.length;
+
+		var tasks = new ForkJoinTask<?>[chunkCnt];
+		for(int k = 0; k < chunkCnt; k++) {
+			tasks[k] = pool.submit(chunks[k]::parseSpeculative);
+		}
+
+		try {
+			// reconcile chunks in order, 'cur' holds the true parse state and 'curSyncIdx' is the index of the first token in its log which is part of the true parse,
+			// once the next chunk syncs, 'cur' is complete so its tokens are passed to the consumers and the chunks up to the synced chunk are released
+			var consumers = this.consumers;
+			tasks[0].join();
+			var cur = chunks[0];
+			int curIdx = 0;
+			int curSyncIdx = 0;
+			for(int k = 1; k < chunkCnt; k++) {
+				tasks[k].join();
+				var chunk = chunks[k];
+				while(true) {
+					int x = cur.nextOffset();
+					// this chunk's speculative parse was never in the same state as the true parse, try the next chunk
+					if(x > chunk.runEnd) {
+						break;
+					}
+					if(x >= chunk.start && cur.parser.getCompoundParserDepth() == 0 && chunk.safePoints.get(x - chunk.start)) {
+						cur.tokens.replay(curSyncIdx, consumers);
+						for(int i = curIdx; i < k; i++) {
+							chunks[i] = null;
+							tasks[i] = null;
+						}
+						curSyncIdx = chunk.indexOfFirstBoundary(x);
+						cur = chunk;
+						curIdx = k;
+						break;
+					}
+					cur.parseNext();
+				}
+			}
+			// only needed if the last chunk's speculative parse never matched the true parse
+			while(cur.buf.hasNext()) {
+				cur.parseNext();
+			}
+			cur.tokens.replay(curSyncIdx, consumers);
+		} finally {
+			// if the true parse failed, don't keep speculating on chunks which will never be used
+			for(var task : tasks) {
+				if(task != null) {
+					task.cancel(false);
+				}
+			}
+		}
+	}
+
+
+	private Chunk[] createChunks(CharSequence text, LineStartIndex lines) {
+		int len = text.length();
+		var starts = new ArrayList<Integer>();
+		starts.add(0);
+		for(int off = chunkSize; off < len; off += chunkSize) {
+			int start = nextLineStart(text, off, Math.min(off + chunkSize, len));
+			if(start < len && start > starts.get(starts.size() - 1)) {
+				starts.add(start);
+			}
+			off = Math.max(off, start);
+		}
+
+		int chunkCnt = starts.size();
+		var chunks = new Chunk[chunkCnt];
+		for(int i = 0; i < chunkCnt; i++) {
+			int end = (i < chunkCnt - 1 ? starts.get(i + 1) : len);
+			chunks[i] = new Chunk(text, lines, starts.get(i), end, parserFactory);
+		}
+		return chunks;
+	}
+
+
+	/**
+	 * @return the offset after the first '\n' in {@code [off, max)}, or {@code off} if there is no new line in that range
+	 */
+	private static int nextLineStart(CharSequence text, int off, int max) {
+		for(int i = off; i < max; i++) {
+			if(text.charAt(i) == '\n') {
+				return i + 1;
+			}
+		}
+		return off;
+	}
+
+
+
+
+	/** A section of the document, its speculative parser, and the tokens it produced
+	 * @author TeamworkGuy2
+	 * @since 2026-10-17
+	 */
+	static class Chunk {
+		final CharSequence text;
+		final LineStartIndex lines;
+		final int start;
+		final int end;
+		final Function<TokenBuffer, CharMultiConditionParser> parserFactory;
+		/** the offset of the char after the last char parsed by the speculative parse, -1 if the speculative parse threw an error */
+		int runEnd;
+		/** offsets (relative to 'start') where the speculative parser had an empty compound parser stack before parsing the char at that offset */
+		BitSet safePoints;
+		TokenBuffer tokens;
+		/** the offset of the char being parsed when each token in 'tokens' was produced */
+		int[] tokenBoundaries;
+		CharMultiConditionParser parser;
+		IndexedTextParser buf;
+
+
+		Chunk(CharSequence text, LineStartIndex lines, int start, int end, Function<TokenBuffer, CharMultiConditionParser> parserFactory) {
+			this.text = text;
+			this.lines = lines;
+			this.start = start;
+			this.end = end;
+			this.parserFactory = parserFactory;
+		}
+
+
+		/** Create this chunk's parser and tokenize the chunk starting with an empty compound parser stack, runs on the pool
+		 */
+		void parseSpeculative() {
+			this.safePoints = new BitSet(end - start + 1);
+			this.tokens = new TokenBuffer();
+			this.tokenBoundaries = new int[64];
+			this.parser = parserFactory.apply(this.tokens);
+			// the true parse runs on one thread, so its cost per char must not grow with the nesting depth
+			this.parser.setSkipAheadCompoundParsers(true);
+			var buf = new IndexedTextParser(text, lines, start);
+			this.buf = buf;
+
+			int x;
+			try {
+				while((x = nextOffset()) < end && buf.hasNext()) {
+					if(parser.getCompoundParserDepth() == 0) {
+						safePoints.set(x - start);
+					}
+					parseNext();
+				}
+			} catch(RuntimeException ex) {
+				// the first chunk is not speculative
+				if(start == 0) {
+					throw ex;
+				}
+				// a speculative parse can start in a state that a sequential parse never reaches, don't use this chunk,
+				// if the error is real the sequential parse through this chunk will encounter it again
+				this.runEnd = -1;
+				return;
+			}
+			if(parser.getCompoundParserDepth() == 0) {
+				safePoints.set(x - start);
+			}
+			this.runEnd = x;
+		}
+
+
+		/**
+		 * @return the offset of the next char to parse
+		 */
+		int nextOffset() {
+			return buf.getPosition() + 1;
+		}
+
+
+		void parseNext() {
+			char ch = buf.nextChar();
+			int boundary = buf.getPosition();
+			int prevSize = tokens.size();
+			parser.parse(ch, buf);
+			int size = tokens.size();
+			if(size > prevSize) {
+				if(size > tokenBoundaries.length) {
+					tokenBoundaries = Arrays.copyOf(tokenBoundaries, Math.max(size, tokenBoundaries.length * 2));
+				}
+				Arrays.fill(tokenBoundaries, prevSize, size, boundary);
+			}
+		}
+
+
+		/**
+		 * @return the index of the first token produced while parsing the char at or after {@code offset}
+		 */
+		int indexOfFirstBoundary(int offset) {
+			var boundaries = this.tokenBoundaries;
+			int lo = 0;
+			int hi = tokens.size();
+			while(lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if(boundaries[mid] < offset) {
+					lo = mid + 1;
+				}
+				else {
+					hi = mid;
+				}
+			}
+			return lo;
+		}
+
+	}
+
+}
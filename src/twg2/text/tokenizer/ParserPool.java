@@ -0,0 +1,175 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import twg2.parser.condition.text.CharParser;
+
+/** A single threaded pool of recycled parsers sized by a {@link ParserPoolPolicy}, with statistics (see {@link ParserPoolStats}).
+ * Used by {@link CharParserMatchableFactory.Reusable} and by the per-factory pools of {@link TokenizerSpec} sessions.<br>
+ * Each policy window starts at its first request, so time when the pool isn't used between windows doesn't count toward the next window.
+ * A pool which stops receiving requests never completes a window, call {@link #trimIdle()} periodically to let the policy shrink an idle pool.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+class ParserPool {
+	private CharParser[] pool;
+	private int size;
+	private ParserPoolPolicy policy;
+	/** the policy's clock, see {@link ParserPoolPolicy#getClock()} */
+	private LongSupplier clock;
+	private int maxSize;
+	private long hits;
+	private long misses;
+	private long recycled;
+	private long recycleRejected;
+	private long trimmed;
+	private int peakSize;
+	private int inUse;
+	private int peakInUse;
+	/** policy window state, 'windowStartNanos' is set by the window's first request */
+	private int windowRequests;
+	private int windowPeakInUse;
+	private long windowStartNanos;
+	/** the number of requests and the time when {@link #trimIdle()} last saw the pool in use */
+	private long idleCheckRequests;
+	private long idleCheckNanos;
+
+
+	ParserPool(ParserPoolPolicy policy) {
+		this.pool = new CharParser[4];
+		setPolicy(policy);
+	}
+
+
+	/**
+	 * @return a pooled parser or null if the pool is empty, the caller should create a new parser
+	 */
+	CharParser take() {
+		int inUse = ++this.inUse;
+		if(inUse > peakInUse) {
+			peakInUse = inUse;
+		}
+		if(inUse > windowPeakInUse) {
+			windowPeakInUse = inUse;
+		}
+		int windowSize = policy.getWindowSize();
+		if(windowSize > 0) {
+			if(windowRequests == 0) {
+				windowStartNanos = clock.getAsLong();
+			}
+			if(++windowRequests == windowSize) {
+				resize();
+			}
+		}
+
+		int size = this.size;
+		if(size > 0) {
+			var parser = pool[size - 1];
+			pool[size - 1] = null;
+			this.size = size - 1;
+			hits++;
+			return parser;
+		}
+		misses++;
+		return null;
+	}
+
+
+	/** Recycle and pool a parser if the pool isn't full and the parser can be recycled
+	 */
+	void offer(CharParser parser) {
+		if(inUse > 0) {
+			inUse--;
+		}
+		int size = this.size;
+		if(size < maxSize && parser.canRecycle()) {
+			if(size == pool.length) {
+				pool = Arrays.copyOf(pool, Math.min(pool.length * 2, maxSize));
+			}
+			pool[size] = parser.recycle();
+			this.size = size + 1;
+			peakSize = Math.max(peakSize, size + 1);
+			recycled++;
+		}
+		else {
+			recycleRejected++;
+		}
+	}
+
+
+	/** Set the pool's sizing policy, idle parsers in excess of the policy's initial size are released
+	 */
+	void setPolicy(ParserPoolPolicy policy) {
+		this.policy = policy;
+		this.clock = policy.getClock();
+		this.maxSize = Math.max(policy.getInitialMaxIdle(), 0);
+		this.windowRequests = 0;
+		this.windowPeakInUse = inUse;
+		this.idleCheckRequests = hits + misses;
+		this.idleCheckNanos = clock.getAsLong();
+		trim();
+	}
+
+
+	ParserPoolPolicy getPolicy() {
+		return policy;
+	}
+
+
+	/** Let the policy shrink the pool if it hasn't been used since the last call to this method (see {@link ParserPoolPolicy#resizeIdle(int, int, long)}).
+	 * The pool has been idle since the last call which saw requests, so call this periodically, for example between documents or from a timer on the thread which owns the pool
+	 */
+	void trimIdle() {
+		long now = clock.getAsLong();
+		long requests = hits + misses;
+		if(requests != idleCheckRequests) {
+			idleCheckRequests = requests;
+			idleCheckNanos = now;
+			return;
+		}
+		int newMaxSize = Math.max(policy.resizeIdle(maxSize, inUse, now - idleCheckNanos), 0);
+		if(newMaxSize < maxSize) {
+			maxSize = newMaxSize;
+			// requests after the idle time start a new window
+			windowRequests = 0;
+			windowPeakInUse = inUse;
+			trim();
+		}
+	}
+
+
+	long getHits() {
+		return hits;
+	}
+
+
+	int getPeakSize() {
+		return peakSize;
+	}
+
+
+	ParserPoolStats getStats() {
+		return new ParserPoolStats(hits, misses, recycled, recycleRejected, trimmed, size, maxSize, peakSize, peakInUse);
+	}
+
+
+	private void resize() {
+		long now = clock.getAsLong();
+		this.maxSize = Math.max(policy.resize(maxSize, windowPeakInUse, now - windowStartNanos), 0);
+		this.windowRequests = 0;
+		this.windowPeakInUse = inUse;
+		trim();
+	}
+
+
+	private void trim() {
+		var pool = this.pool;
+		for(int size = this.size; size > maxSize; size--) {
+			pool[size - 1] = null;
+			this.size = size - 1;
+			trimmed++;
+		}
+	}
+
+}
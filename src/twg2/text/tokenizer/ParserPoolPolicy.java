@@ -0,0 +1,112 @@
+package twg2.text.tokenizer;
+
+import java.util.function.LongSupplier;
+
+/** Sizing policy for a pool of recycled parsers, such as {@link CharParserMatchableFactory.Reusable}.<br>
+ * A pool calls {@link #resize(int, int, long)} once every {@link #getWindowSize()} parser requests with the statistics from that window
+ * and trims its idle parsers to the returned size. A pool which receives no requests never completes a window, so pools also call
+ * {@link #resizeIdle(int, int, long)} from their {@code trimIdle()} maintenance method.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface ParserPoolPolicy {
+
+	/**
+	 * @return the maximum number of idle parsers the pool keeps before the first resize
+	 */
+	public int getInitialMaxIdle();
+
+
+	/**
+	 * @return the number of parser requests between calls to {@link #resize(int, int, long)}, 0 if the pool is never resized
+	 */
+	public int getWindowSize();
+
+
+	/** Calculate a pool's new maximum idle size
+	 * @param currentMaxIdle the pool's current maximum number of idle parsers
+	 * @param windowPeakInUse the largest number of parsers in use at the same time during the last window
+	 * @param windowNanos how long the last window took, a long window means the pool is rarely used
+	 * @return the new maximum number of idle parsers
+	 */
+	public int resize(int currentMaxIdle, int windowPeakInUse, long windowNanos);
+
+
+	/** Calculate a pool's new maximum idle size when the pool hasn't received any requests for {@code idleNanos}.
+	 * The pool only applies the result if it is smaller than {@code currentMaxIdle}, the default implementation never shrinks the pool
+	 * @param currentMaxIdle the pool's current maximum number of idle parsers
+	 * @param inUse the number of parsers currently in use
+	 * @param idleNanos how long the pool has not received any requests
+	 * @return the new maximum number of idle parsers
+	 */
+	public default int resizeIdle(int currentMaxIdle, int inUse, long idleNanos) {
+		return currentMaxIdle;
+	}
+
+
+	/**
+	 * @return the nanosecond clock the pool measures window and idle times with, {@link System#nanoTime()} by default
+	 */
+	public default LongSupplier getClock() {
+		return System::nanoTime;
+	}
+
+
+	/**
+	 * @return a policy which always keeps up to {@code maxIdle} idle parsers
+	 */
+	public static ParserPoolPolicy fixed(int maxIdle) {
+		return new ParserPoolPolicy() {
+			@Override public int getInitialMaxIdle() { return maxIdle; }
+			@Override public int getWindowSize() { return 0; }
+			@Override public int resize(int currentMaxIdle, int windowPeakInUse, long windowNanos) { return maxIdle; }
+			@Override public String toString() { return "fixed(" + maxIdle + ")"; }
+		};
+	}
+
+
+	/**
+	 * @return a policy which keeps as many idle parsers as the peak number of parsers in use at the same time during the last window,
+	 * within {@code [minIdle, maxIdle]}
+	 */
+	public static ParserPoolPolicy adaptive(int minIdle, int maxIdle, int windowSize) {
+		if(minIdle < 0 || maxIdle < minIdle || windowSize < 1) {
+			throw new IllegalArgumentException("invalid adaptive pool policy min " + minIdle + ", max " + maxIdle + ", window " + windowSize);
+		}
+		return new ParserPoolPolicy() {
+			@Override public int getInitialMaxIdle() { return minIdle; }
+			@Override public int getWindowSize() { return windowSize; }
+			@Override public int resize(int currentMaxIdle, int windowPeakInUse, long windowNanos) { return Math.max(minIdle, Math.min(maxIdle, windowPeakInUse)); }
+			@Override public String toString() { return "adaptive(" + minIdle + ", " + maxIdle + ", " + windowSize + ")"; }
+		};
+	}
+
+
+	/**
+	 * @return a policy which keeps up to {@code maxIdle} idle parsers while the pool is busy, and shrinks to the last window's peak number
+	 * of parsers in use when a window of {@code windowSize} requests takes longer than {@code idleNanos}, or to the number of parsers in use
+	 * when the pool hasn't received any requests for longer than {@code idleNanos} (see {@link #resizeIdle(int, int, long)})
+	 */
+	public static ParserPoolPolicy shrinkWhenIdle(int maxIdle, int windowSize, long idleNanos) {
+		return shrinkWhenIdle(maxIdle, windowSize, idleNanos, System::nanoTime);
+	}
+
+
+	/** The same as {@link #shrinkWhenIdle(int, int, long)}, with times measured by {@code clock} (for example a manually advanced clock in tests)
+	 * @param clock the nanosecond clock, see {@link #getClock()}
+	 */
+	public static ParserPoolPolicy shrinkWhenIdle(int maxIdle, int windowSize, long idleNanos, LongSupplier clock) {
+		if(maxIdle < 0 || windowSize < 1) {
+			throw new IllegalArgumentException("invalid idle shrinking pool policy max " + maxIdle + ", window " + windowSize);
+		}
+		return new ParserPoolPolicy() {
+			@Override public int getInitialMaxIdle() { return maxIdle; }
+			@Override public int getWindowSize() { return windowSize; }
+			@Override public int resize(int currentMaxIdle, int windowPeakInUse, long windowNanos) { return windowNanos > idleNanos ? Math.min(maxIdle, windowPeakInUse) : maxIdle; }
+			@Override public int resizeIdle(int currentMaxIdle, int inUse, long idleTime) { return idleTime > idleNanos ? Math.min(currentMaxIdle, inUse) : currentMaxIdle; }
+			@Override public LongSupplier getClock() { return clock; }
+			@Override public String toString() { return "shrinkWhenIdle(" + maxIdle + ", " + windowSize + ", " + idleNanos + "ns)"; }
+		};
+	}
+
+}
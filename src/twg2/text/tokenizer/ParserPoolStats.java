@@ -0,0 +1,116 @@
+package twg2.text.tokenizer;
+
+/** An immutable snapshot of a parser pool's statistics
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ParserPoolStats {
+	private final long hits;
+	private final long misses;
+	private final long recycled;
+	private final long recycleRejected;
+	private final long trimmed;
+	private final int idle;
+	private final int maxIdle;
+	private final int peakIdle;
+	private final int peakInUse;
+
+
+	public ParserPoolStats(long hits, long misses, long recycled, long recycleRejected, long trimmed, int idle, int maxIdle, int peakIdle, int peakInUse) {
+		this.hits = hits;
+		this.misses = misses;
+		this.recycled = recycled;
+		this.recycleRejected = recycleRejected;
+		this.trimmed = trimmed;
+		this.idle = idle;
+		this.maxIdle = maxIdle;
+		this.peakIdle = peakIdle;
+		this.peakInUse = peakInUse;
+	}
+
+
+	/**
+	 * @return the number of parser requests served from the pool
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+
+	/**
+	 * @return the number of parser requests which created a new parser
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+
+	/**
+	 * @return the number of returned parsers added to the pool
+	 */
+	public long getRecycled() {
+		return recycled;
+	}
+
+
+	/**
+	 * @return the number of returned parsers which were not pooled, because the pool was full or the parser can't be recycled
+	 */
+	public long getRecycleRejected() {
+		return recycleRejected;
+	}
+
+
+	/**
+	 * @return the number of idle parsers released when the pool shrank
+	 */
+	public long getTrimmed() {
+		return trimmed;
+	}
+
+
+	/**
+	 * @return the number of idle parsers in the pool when this snapshot was taken
+	 */
+	public int getIdle() {
+		return idle;
+	}
+
+
+	/**
+	 * @return the pool's maximum number of idle parsers when this snapshot was taken
+	 */
+	public int getMaxIdle() {
+		return maxIdle;
+	}
+
+
+	public int getPeakIdle() {
+		return peakIdle;
+	}
+
+
+	/**
+	 * @return the largest number of parsers in use at the same time
+	 */
+	public int getPeakInUse() {
+		return peakInUse;
+	}
+
+
+	/**
+	 * @return the fraction of parser requests served from the pool
+	 */
+	public double getHitRate() {
+		long total = hits + misses;
+		return total > 0 ? hits / (double)total : 0;
+	}
+
+
+	@Override
+	public String toString() {
+		return "hits=" + hits + ", misses=" + misses + ", recycled=" + recycled + ", recycleRejected=" + recycleRejected + ", trimmed=" + trimmed +
+				", idle=" + idle + ", maxIdle=" + maxIdle + ", peakIdle=" + peakIdle + ", peakInUse=" + peakInUse;
+	}
+
+}
@@ -0,0 +1,280 @@
+package twg2.text.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import twg2.parser.textParser.LineNumbers;
+import twg2.parser.textParser.TextParser;
+
+/** A streaming {@link TextParser} which reads from a {@link Reader} and only keeps a bounded window of already read chars in memory.<br>
+ * {@link #unread(int)} and {@link #prevChar()} work as long as the requested chars are still in the window, the window always contains
+ * at least the last {@code windowSize} chars read. The window must be larger than the longest non-compound token (parsers which fail
+ * are rewound to the char after their first char) and the longest compiled literal (see {@link CharLiteralDfa}).<br>
+ * Offsets, line numbers and column numbers are tracked incrementally and are always relative to the start of the stream,
+ * so tokens which span a buffer refill report the same coordinates as they would with an in-memory source.
+ * {@link #getLineNumbers()} is not supported since it requires the full text.<br>
+ * Since {@link TextParser} positions are ints, a stream can contain at most {@link Integer#MAX_VALUE} chars,
+ * reading past that limit throws an {@link IllegalStateException}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ReaderTextParser implements RunTextParser {
+	public static final int DEFAULT_WINDOW_SIZE = 8192;
+
+	private final Reader src;
+	private final int windowSize;
+	private char[] buf;
+	/** the stream offset of buf[0] */
+	private int bufStart;
+	/** the number of valid chars in 'buf' */
+	private int bufLen;
+	/** the stream offset of the last char returned by nextChar(), -1 before the first char */
+	private int pos;
+	private boolean eof;
+	/** stream offsets of the start of each line which overlaps the window, 'lineStarts[0]' is line 'firstLineNum' */
+	private int[] lineStarts;
+	private int lineStartsSize;
+	private int firstLineNum;
+
+
+	/**
+	 * @param src the source to read from, not closed by this parser
+	 * @param windowSize the minimum number of already read chars which can be unread
+	 */
+	public ReaderTextParser(Reader src, int windowSize) {
+		if(windowSize < 1) {
+			throw new IllegalArgumentException("window size must be greater than 0: " + windowSize);
+		}
+		this.src = src;
+		this.windowSize = windowSize;
+		this.buf = new char[Math.max(windowSize * 2, 1024)];
+		this.pos = -1;
+		this.lineStarts = new int[16];
+		this.lineStarts[0] = 0;
+		this.lineStartsSize = 1;
+		this.firstLineNum = 1;
+	}
+
+
+	@Override
+	public boolean hasNext() {
+		return pos + 1 - bufStart < bufLen || fill();
+	}
+
+
+	@Override
+	public char nextChar() {
+		int idx = pos + 1 - bufStart;
+		if(idx >= bufLen) {
+			if(!fill()) {
+				throw new IndexOutOfBoundsException("end of input reached at " + (pos + 1));
+			}
+			idx = pos + 1 - bufStart;
+		}
+		pos++;
+		return buf[idx];
+	}
+
+
+	@Override
+	public int nextRun(CharClass chars) {
+		int count = 0;
+		while(true) {
+			int idx = pos + 1 - bufStart;
+			int end = CharRunScanner.scan(buf, idx, bufLen, chars);
+			count += end - idx;
+			pos += end - idx;
+			// the run stopped inside the window or the end of the input was reached
+			if(end < bufLen || !fill()) {
+				return count;
+			}
+		}
+	}
+
+
+	@Override
+	public void unread(int count) {
+		// the char before the window is allowed since it is only a position, its value is never read
+		if(pos - count < bufStart - 1) {
+			throw new IllegalStateException("cannot unread " + count + " chars from position " + pos + ", the window starts at " + bufStart + " (window size " + windowSize + ")");
+		}
+		pos -= count;
+	}
+
+
+	@Override
+	public boolean hasPrevChar() {
+		return pos > 0;
+	}
+
+
+	@Override
+	public char prevChar() {
+		if(pos - 1 < bufStart) {
+			throw new IllegalStateException("previous char at " + (pos - 1) + " is no longer in the window, the window starts at " + bufStart);
+		}
+		return buf[pos - 1 - bufStart];
+	}
+
+
+	/** Not supported, line number lookups require the full text, use {@link #getLineNumber()} and {@link #getColumnNumber()}
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public LineNumbers getLineNumbers() {
+		throw new UnsupportedOperationException("line numbers lookups are not supported by a streaming parser");
+	}
+
+
+	@Override
+	public String getPositionDisplayText() {
+		return "position " + pos + ", line " + getLineNumber() + ", column " + getColumnNumber();
+	}
+
+
+	@Override
+	public int getPosition() {
+		return pos;
+	}
+
+
+	@Override
+	public int getLineNumber() {
+		int idx = lineIndexOf(pos);
+		return idx < 0 ? firstLineNum : firstLineNum + idx;
+	}
+
+
+	@Override
+	public int getColumnNumber() {
+		int idx = lineIndexOf(pos);
+		return idx < 0 ? pos + 1 : pos - lineStarts[idx] + 1;
+	}
+
+
+	/**
+	 * @return the index in 'lineStarts' of the line containing {@code offset}, -1 if {@code offset} is before the start of the stream
+	 */
+	private int lineIndexOf(int offset) {
+		var lineStarts = this.lineStarts;
+		int lo = 0;
+		int hi = lineStartsSize - 1;
+		if(offset < lineStarts[0]) {
+			return -1;
+		}
+		// find the last line start <= offset
+		while(lo < hi) {
+			int mid = (lo + hi + 1) >>> 1;
+			if(lineStarts[mid] <= offset) {
+				lo = mid;
+			}
+			else {
+				hi = mid - 1;
+			}
+		}
+		return lo;
+	}
+
+
+	/** Discard chars which are no longer part of the window and read more chars from the source
+	 * @return true if more chars were read, false if the end of the source was reached
+	 */
+	private boolean fill() {
+		if(eof) {
+			return false;
+		}
+		// keep the last 'windowSize' chars read
+		int keepFrom = Math.max(bufStart, pos + 1 - windowSize);
+		int drop = keepFrom - bufStart;
+		if(drop > 0) {
+			System.arraycopy(buf, drop, buf, 0, bufLen - drop);
+			bufLen -= drop;
+			bufStart = keepFrom;
+			dropLineStarts(bufStart - 1);
+		}
+		if(bufLen == buf.length) {
+			buf = Arrays.copyOf(buf, buf.length * 2);
+		}
+
+		// stream offsets, including the line start after a trailing '\n', must fit in an int
+		int maxRead = Math.min(buf.length - bufLen, Integer.MAX_VALUE - (bufStart + bufLen));
+		if(maxRead == 0) {
+			if(read(new char[1], 0, 1) < 0) {
+				eof = true;
+				return false;
+			}
+			throw new IllegalStateException("input is longer than the maximum of " + Integer.MAX_VALUE + " chars supported by a text parser");
+		}
+
+		int readCnt = read(buf, bufLen, maxRead);
+		if(readCnt < 0) {
+			eof = true;
+			return false;
+		}
+
+		for(int i = bufLen, end = bufLen + readCnt; i < end; i++) {
+			if(buf[i] == '\n') {
+				addLineStart(bufStart + i + 1);
+			}
+		}
+		bufLen += readCnt;
+		return true;
+	}
+
+
+	/** Read at least one char from the source, blocking until a char is available or the end of the source is reached
+	 * @return the number of chars read, -1 at the end of the source
+	 */
+	private int read(char[] dst, int off, int len) {
+		int readCnt;
+		try {
+			do {
+				readCnt = src.read(dst, off, len);
+			} while(readCnt == 0);
+		} catch(IOException ioe) {
+			throw new UncheckedIOException(ioe);
+		}
+		return readCnt;
+	}
+
+
+	/** Remove line starts before the line containing {@code offset}
+	 */
+	private void dropLineStarts(int offset) {
+		int idx = lineIndexOf(offset);
+		if(idx > 0) {
+			System.arraycopy(lineStarts, idx, lineStarts, 0, lineStartsSize - idx);
+			lineStartsSize -= idx;
+			firstLineNum += idx;
+		}
+	}
+
+
+	private void addLineStart(int offset) {
+		if(lineStartsSize == lineStarts.length) {
+			lineStarts = Arrays.copyOf(lineStarts, lineStarts.length * 2);
+		}
+		lineStarts[lineStartsSize++] = offset;
+	}
+
+
+	/** Create a streaming parser which decodes an {@link InputStream}
+	 * @param src the input stream, not closed by this parser
+	 * @param charset the input stream's encoding
+	 * @param windowSize the minimum number of already read chars which can be unread
+	 */
+	public static ReaderTextParser of(InputStream src, Charset charset, int windowSize) {
+		return new ReaderTextParser(new InputStreamReader(src, charset), windowSize);
+	}
+
+
+	public static ReaderTextParser of(Reader src) {
+		return new ReaderTextParser(src, DEFAULT_WINDOW_SIZE);
+	}
+
+}
@@ -0,0 +1,29 @@
+package twg2.text.tokenizer;
+
+import twg2.functions.predicates.CharPredicate;
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textParser.TextParser;
+
+/** A {@link CharParser} which can accept a run of chars in one step, for example an identifier, number, or whitespace condition
+ * which has matched its first char and accepts any number of chars from a char class.<br>
+ * A {@link CharMultiConditionParser} with {@link CharMultiConditionParser#setScanCharRuns(boolean) run scanning} enabled finds the end of the run
+ * with a {@link CharRunScanner} and calls {@link #acceptRun(int, TextParser)} once instead of calling {@link #acceptNext(char, TextParser)} for each char.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface RunCharParser extends CharParser {
+
+	/**
+	 * @return the chars this parser accepts as a run from its current state, or null if the next char must be passed to {@link #acceptNext(char, TextParser)}.
+	 * A {@link CharClass} allows the run to be scanned directly from the input by a {@link RunTextParser}
+	 */
+	public CharPredicate getRunChars();
+
+
+	/** Accept a run of chars which all match {@link #getRunChars()}, the run is as long as possible so the next char (if any) does not match
+	 * @param count the number of chars in the run, greater than 0
+	 * @param buf the input, positioned at the last char of the run
+	 */
+	public void acceptRun(int count, TextParser buf);
+
+}
@@ -0,0 +1,18 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.textParser.TextParser;
+
+/** A {@link TextParser} which can advance over a run of chars from a {@link CharClass} in one call by scanning its underlying text directly
+ * instead of one {@link #nextChar()} at a time.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface RunTextParser extends TextParser {
+
+	/** Advance over the chars after the current position which are in {@code chars}
+	 * @param chars the char class to match
+	 * @return the number of chars advanced over, the parser is positioned at the last of them (or unchanged if the result is 0)
+	 */
+	public int nextRun(CharClass chars);
+
+}
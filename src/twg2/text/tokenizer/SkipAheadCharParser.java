@@ -0,0 +1,21 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textParser.TextParser;
+
+/** A {@link CharParser} which can report when it is only waiting for one of a small set of chars, for example a compound
+ * start/end parser which has matched its start marker and is waiting for its single char end marker.<br>
+ * While waiting, chars which are not in {@link #getSkipUntilChars()} do not change the parser's result, so a
+ * {@link CharMultiConditionParser} can skip passing them to {@link #acceptNext(char, TextParser)}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface SkipAheadCharParser extends CharParser {
+
+	/**
+	 * @return the chars which can change this parser's state, or null if every char must be passed to {@link #acceptNext(char, TextParser)}.
+	 * The result only changes when {@link #acceptNext(char, TextParser)} or {@link #recycle()} is called
+	 */
+	public char[] getSkipUntilChars();
+
+}
@@ -0,0 +1,107 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+
+/** A growable struct-of-arrays list of spans within a token, for example the elements and separators of a list matched by a
+ * {@link CharConditionPipe.RepeatableSeparator}, recorded while the token is parsed so the token doesn't need to be tokenized again to find its parts.<br>
+ * Each span has the index of the condition set which matched it (for a {@link CharConditionPipe.RepeatableSeparator} 0 is an element and 1 is a separator),
+ * an offset, and a length.
+ * The {@code get*s()} methods return the backing arrays, only the first {@link #size()} elements are valid and the arrays
+ * may be replaced when the buffer grows.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class SpanBuffer {
+	int[] setIdxs;
+	int[] offsets;
+	int[] lengths;
+	int size;
+
+
+	public SpanBuffer() {
+		this(16);
+	}
+
+
+	public SpanBuffer(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.setIdxs = new int[capacity];
+		this.offsets = new int[capacity];
+		this.lengths = new int[capacity];
+	}
+
+
+	/** Add a span
+	 * @param setIdx the index of the condition set which matched the span
+	 */
+	public void add(int setIdx, int offset, int length) {
+		int i = size;
+		if(i == offsets.length) {
+			grow(i * 2);
+		}
+		setIdxs[i] = setIdx;
+		offsets[i] = offset;
+		lengths[i] = length;
+		size = i + 1;
+	}
+
+
+	/** Add all of the spans in {@code src} to the end of this buffer
+	 */
+	public void addAll(SpanBuffer src) {
+		int srcSize = src.size;
+		int newSize = size + srcSize;
+		if(newSize > offsets.length) {
+			grow(Math.max(newSize, offsets.length * 2));
+		}
+		System.arraycopy(src.setIdxs, 0, setIdxs, size, srcSize);
+		System.arraycopy(src.offsets, 0, offsets, size, srcSize);
+		System.arraycopy(src.lengths, 0, lengths, size, srcSize);
+		size = newSize;
+	}
+
+
+	public int size() {
+		return size;
+	}
+
+
+	/** Remove all spans, the buffer's capacity is kept
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+
+	public int[] getSetIndices() {
+		return setIdxs;
+	}
+
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+
+	public int[] getLengths() {
+		return lengths;
+	}
+
+
+	@Override
+	public String toString() {
+		var sb = new StringBuilder("[");
+		for(int i = 0; i < size; i++) {
+			sb.append(i > 0 ? ", " : "").append(setIdxs[i]).append(':').append(offsets[i]).append('+').append(lengths[i]);
+		}
+		return sb.append(']').toString();
+	}
+
+
+	private void grow(int capacity) {
+		setIdxs = Arrays.copyOf(setIdxs, capacity);
+		offsets = Arrays.copyOf(offsets, capacity);
+		lengths = Arrays.copyOf(lengths, capacity);
+	}
+
+}
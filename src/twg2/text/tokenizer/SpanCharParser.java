@@ -0,0 +1,19 @@
+package twg2.text.tokenizer;
+
+import twg2.parser.condition.text.CharParser;
+
+/** A {@link CharParser} which can record the spans of the parts of its match (for example the elements and separators of a list) while parsing.<br>
+ * A {@link CharMultiConditionParser} adding tokens to a {@link TokenBuffer} with {@link TokenBuffer#setRecordSpans(boolean) span recording}
+ * enabled copies the spans of each completed token into the token buffer.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public interface SpanCharParser extends CharParser {
+
+	/**
+	 * @return the spans recorded for the text accepted so far, only complete once {@link #isComplete()} is true,
+	 * or null if this parser isn't recording spans
+	 */
+	public SpanBuffer getSpans();
+
+}
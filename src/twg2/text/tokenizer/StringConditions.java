@@ -3,7 +3,6 @@ package twg2.text.tokenizer;
 import java.util.Arrays;
 import java.util.Collection;
 
-import twg2.arrays.ArrayManager;
 import twg2.arrays.ArrayUtil;
 import twg2.parser.condition.text.CharParser;
 import twg2.parser.condition.text.CharParserMatchable;
@@ -30,14 +29,11 @@ public class StringConditions {
 	public static abstract class BaseStringParser implements CharParserMatchable {
 		String[] originalStrs;
 		char[] firstChars;
-		String[] matchingStrs;
-		int matchingStrsSize;
 		boolean anyComplete = false;
 		boolean failed = false;
 		/** count all accepted characters (including characters not explicitly part of 'matchingChars') */
 		int acceptedCount = 0;
 		Inclusion includeMatchInRes;
-		StringBuilder dstBuf = new StringBuilder();
 		TextFragmentRefImplMut coords = new TextFragmentRefImplMut();
 		CharParserPredicate firstCharMatcher;
 		String name;
@@ -51,43 +47,17 @@ public class StringConditions {
 
 		// package-private
 		BaseStringParser(String name, String[] strs, char[] firstChars, CharParserPredicate firstCharMatcher, Inclusion includeCondMatchInRes) {
-			int strCnt = strs.length;
 			this.originalStrs = strs;
 			this.firstChars = firstChars = getFirstChars(firstChars, strs);
-
-			this.matchingStrs = new String[strCnt];
-	        System.arraycopy(strs, 0, this.matchingStrs, 0, strCnt);
-	        this.matchingStrsSize = strCnt;
-
-	        this.anyComplete = false;
+			this.anyComplete = false;
 			this.includeMatchInRes = includeCondMatchInRes;
 			this.name = name;
 
 			if(firstCharMatcher != null) {
 				this.firstCharMatcher = firstCharMatcher;
 			}
-			// performance optimization for single char matchers
-			else if(firstChars.length == 1) {
-				var ch1 = firstChars[0];
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					return ch1 == ch;
-				};
-			}
-			else if(firstChars.length == 2) {
-				var ch1 = firstChars[0];
-				var ch2 = firstChars[1];
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					return ch1 == ch || ch2 == ch;
-				};
-			}
 			else {
-				var chs = firstChars;
-				this.firstCharMatcher = (char ch, TextParser buf) -> {
-					for(int i = 0, size = chs.length; i < size; i++) {
-						if(chs[i] == ch) { return true; }
-					}
-					return false;
-				};
+				this.firstCharMatcher = CharBitSet.matcherFor(firstChars);
 			}
 		}
 
@@ -149,52 +119,13 @@ public class StringConditions {
 
 		// package-private
 		void reset() {
-			var origCnt = originalStrs.length;
-			ArrayManager.clearAndAddAll(matchingStrs, originalStrs, 0, origCnt);
-			matchingStrsSize = origCnt;
 			anyComplete = false;
 			failed = false;
-			dstBuf.setLength(0);
 			coords = new TextFragmentRefImplMut();
 			acceptedCount = 0;
 		}
 
 
-		/** Remove {@code matches} who's {@link String#charAt(int)} {@code off} do not match {@code ch}
-		 * @return 0 if no match, 1 if match found, 2 if match completed
-		 */
-		// package-private
-		private byte updateMatches(char ch, int off) {
-			var matches = this.matchingStrs;
-			int size = this.matchingStrsSize;
-			byte found = 0;
-			// reverse iterate through the bag so we don't have to adjust the loop counter when we remove elements
-			for(int i = size - 1; i > -1; i--) {
-				String str = matches[i];
-				int strLen = str.length();
-				// ignore string shorter than the current search offset (technically, if the precondition filter starts at offset 0, none of these should exist)
-				if(strLen > off) {
-					if(str.charAt(off) != ch) {
-						ArrayManager.removeUnordered(matches, size, i);
-						size--;
-					}
-					else {
-						found = 1;
-						if(strLen == off + 1) {
-							found = 2;
-						}
-					}
-				}
-				else {
-					ArrayManager.removeUnordered(matches, size, i);
-					size--;
-				}
-			}
-			this.matchingStrsSize = size;
-			return found;
-		}
-
-
 		/** Returns {@code firstChars} if not null, else returns the {@link String#charAt(int) charAt(0)} of all the {@code strs}
 		 * @param firstChars the optional first chars array to return as-is
 		 * @param strs the array of string to extract first chars from if {@code firstChars} is null
@@ -217,39 +148,53 @@ public class StringConditions {
 
 
 
-	/** A matcher that finds exact string sequences
+	/** A matcher that finds exact string sequences.<br>
+	 * The strings are stored in a {@link StringTrie} built once and shared by all copies of the condition,
+	 * a parser only tracks its current trie state so copying, recycling, and matching each char don't depend on the number of strings.
+	 * The condition completes once the first of the strings which match the chars accepted so far ends, so listing a string before
+	 * a shorter string which is its prefix (i.e. {@code "==", "="}) matches the longer string.
 	 */
 	public static class Literal extends BaseStringParser {
+		final StringTrie trie;
+		/** the trie state of the chars accepted so far */
+		int state;
+
 
 		public Literal(String name, String[] strs, Inclusion includeCondMatchInRes) {
-			super(name, strs, null, null, includeCondMatchInRes);
+			this(name, strs, null, null, includeCondMatchInRes);
 		}
 
 
 		public Literal(String name, String[] strs, char[] firstChars, CharParserPredicate firstCharMatcher, Inclusion includeCondMatchInRes) {
+			this(name, strs, firstChars, firstCharMatcher, includeCondMatchInRes, new StringTrie(strs));
+		}
+
+
+		Literal(String name, String[] strs, char[] firstChars, CharParserPredicate firstCharMatcher, Inclusion includeCondMatchInRes, StringTrie trie) {
 			super(name, strs, firstChars, firstCharMatcher, includeCondMatchInRes);
+			this.trie = trie;
+			this.state = StringTrie.ROOT;
 		}
 
 
 		@Override
 		public boolean acceptNext(char ch, TextParser buf) {
-			int off = super.dstBuf.length();
-			int acceptedCnt = super.acceptedCount;
-			if(acceptedCnt > off) {
-				super.failed = true;
+			if(super.failed) {
 				return false;
 			}
-			byte found = super.updateMatches(ch, off);
-			if(found == 2) {
-				super.anyComplete = true;
-			}
+			var trie = this.trie;
+			int next = trie.child(this.state, ch);
 
-			if(found > 0) {
-				if(acceptedCnt == 0) {
+			if(next > -1) {
+				if(this.state == StringTrie.ROOT) {
 					super.coords.setStart(buf);
 				}
+				this.state = next;
+				// only complete when the first of the strings which still match ends here (see StringTrie.completes)
+				if(trie.completes[next]) {
+					super.anyComplete = true;
+				}
 				super.acceptedCount++;
-				super.dstBuf.append(ch);
 				if(super.anyComplete) {
 					super.coords.setEnd(buf);
 				}
@@ -265,7 +210,14 @@ public class StringConditions {
 
 		@Override
 		public Literal copy() {
-			return new Literal(super.name, super.originalStrs, super.firstChars, super.firstCharMatcher, super.includeMatchInRes);
+			return new Literal(super.name, super.originalStrs, super.firstChars, super.firstCharMatcher, super.includeMatchInRes, this.trie);
+		}
+
+
+		@Override
+		void reset() {
+			super.reset();
+			this.state = StringTrie.ROOT;
 		}
 
 	}
@@ -273,54 +225,84 @@ public class StringConditions {
 
 
 
-	/** A matcher that finds ends-with sequences
+	/** A matcher that finds ends-with sequences.<br>
+	 * Matching runs on an Aho-Corasick automaton ({@link StringTrie}) built once and shared by all copies of the condition,
+	 * so each char takes amortized constant time no matter how many end strings there are or how many partial matches fail.
+	 * The condition is non-greedy, it completes at the first char which ends any of the strings.
 	 */
 	public static class End extends BaseStringParser {
+		final StringTrie trie;
+		/** the current automaton state, its depth is the length of the current (partial or complete) match */
+		int state;
+		/** the last 'trie.maxLength + 1' chars accepted, indexed by offset, used to move the match start line/column forward */
+		char[] recentChars;
+		int recentMask;
+
 
 		public End(String name, String[] strs, Inclusion includeCondMatchInRes) {
-			super(name, strs, null, null, includeCondMatchInRes);
+			this(name, strs, null, null, includeCondMatchInRes);
 		}
 
 
 		public End(String name, String[] strs, char[] firstChars, CharParserPredicate firstCharMatcher, Inclusion includeCondMatchInRes) {
+			this(name, strs, firstChars, firstCharMatcher, includeCondMatchInRes, new StringTrie(strs));
+		}
+
+
+		End(String name, String[] strs, char[] firstChars, CharParserPredicate firstCharMatcher, Inclusion includeCondMatchInRes, StringTrie trie) {
 			super(name, strs, firstChars, firstCharMatcher, includeCondMatchInRes);
+			this.trie = trie;
+			this.state = StringTrie.ROOT;
+			int size = Integer.highestOneBit(Math.max(trie.maxLength, 1)) << 1;
+			this.recentChars = new char[size];
+			this.recentMask = size - 1;
 		}
 
 
 		@Override
 		public boolean acceptNext(char ch, TextParser buf) {
-			int off = super.dstBuf.length();
-			if(super.isComplete()) {
-				// if this end sequence is still matched by adding the next character
-				if(findMoreRecentMatch(ch, buf)) {
-					return true;
-				}
-				else {
+			if(super.failed) {
+				return false;
+			}
+			var trie = this.trie;
+			int pos = buf.getPosition();
+			this.recentChars[pos & this.recentMask] = ch;
+			int prevDepth = trie.depths[this.state];
+
+			int next;
+			if(super.anyComplete) {
+				// once complete, the condition only continues if a more recent match overlaps the completed match
+				next = trie.step(trie.fails[this.state], ch);
+				if(next == StringTrie.ROOT) {
 					super.failed = true;
 					return false;
 				}
 			}
-
-			byte found = super.updateMatches(ch, off);
-			if(found == 2) {
-				super.anyComplete = true;
+			else {
+				next = trie.step(this.state, ch);
+				if(next == StringTrie.ROOT) {
+					this.reset();
+					return true;
+				}
 			}
 
-			if(found > 0) {
-				if(super.acceptedCount == 0) {
-					super.coords.setStart(buf);
-				}
-				super.acceptedCount++;
-				super.dstBuf.append(ch);
-				if(super.anyComplete) {
-					super.coords.setEnd(buf);
-				}
+			// a string may end inside a longer partial match, the shortest match wins
+			int matchState = trie.matchStates[next];
+			if(matchState != StringTrie.ROOT) {
+				next = matchState;
 			}
-			else {
-				boolean match = findMoreRecentMatch(ch, buf);
-				if(!match) {
-					super.reset();
-				}
+			int depth = trie.depths[next];
+			if(prevDepth == 0) {
+				super.coords.setStart(buf);
+			}
+			else if(depth <= prevDepth) {
+				moveStart(prevDepth + 1 - depth);
+			}
+			this.state = next;
+			super.acceptedCount = depth;
+			super.anyComplete = matchState != StringTrie.ROOT;
+			if(super.anyComplete) {
+				super.coords.setEnd(buf);
 			}
 			return true;
 		}
@@ -328,60 +310,34 @@ public class StringConditions {
 
 		@Override
 		public End copy() {
-			return new End(super.name, super.originalStrs, super.firstChars, super.firstCharMatcher, super.includeMatchInRes);
+			return new End(super.name, super.originalStrs, super.firstChars, super.firstCharMatcher, super.includeMatchInRes, this.trie);
 		}
 
 
-		/** Check for a shorter matching sequence in currently matched chars and update this end condition's buffer and coords to start at the shorter sub-match.
-		 * This is what makes the ends-with condition non-greedy.
-		 * @return true if a shorter match exists
-		 */
-		private boolean findMoreRecentMatch(char ch, TextParser buf) {
-			var dstBuf = super.dstBuf;
-			// start i = 1 because this method should only get called when current sequence is a match and another characters is available
-			// OR (i == 1 && size == 1) supports the case when 1 character has been matched and the next 'ch' doesn't match, but 'ch' might match with the beginning of this condition
-			for(int i = 1, size = dstBuf.length(); i < size || (i == 1 && size == 1); i++) {
-				this.partialReset();
-				for(int j = i; j < size; j++) {
-					byte found = super.updateMatches(dstBuf.charAt(j), j - i);
-					if(found == 2) {
-						super.anyComplete = true;
-					}
-				}
-				// newest char
-				byte found = super.updateMatches(ch, size - i);
-				if(found == 2) {
-					super.anyComplete = true;
-				}
-				// found match
-				if(super.matchingStrsSize > 0) {
-					dstBuf.delete(0, i);
-					dstBuf.append(ch);
-					super.acceptedCount = size - i + 1;
-					int pos = super.coords.getOffsetStart() + i;
-					int lineNum = buf.getLineNumbers().getLineNumber(pos);
-					int columnNum = pos - buf.getLineNumbers().getLineOffset(lineNum);
-					super.coords.setStart(new ParserPos.Impl(pos, lineNum + 1, columnNum + 1));
-					if(super.anyComplete) {
-						super.coords.setEnd(buf);
-					}
-					return true;
-				}
-			}
-			return false;
+		@Override
+		void reset() {
+			super.reset();
+			this.state = StringTrie.ROOT;
 		}
 
 
-		// package-private
-		void partialReset() {
-			var origCnt = originalStrs.length;
-			ArrayManager.clearAndAddAll(matchingStrs, originalStrs, 0, origCnt);
-			matchingStrsSize = origCnt;
-			anyComplete = false;
-			failed = false;
-			//dstBuf.setLength(0);
-			//coords = new TextFragmentRefImplMut();
-			acceptedCount = 0;
+		/** Move the start of the current match forward by {@code skipCnt} chars, the new start line and column are calculated
+		 * from the skipped chars rather than a full text line lookup, so streaming sources work
+		 */
+		private void moveStart(int skipCnt) {
+			var coords = super.coords;
+			var recentChars = this.recentChars;
+			int mask = this.recentMask;
+			int startPos = coords.getOffsetStart();
+			int lineNum = coords.getLineStart();
+			int columnNum = coords.getColumnStart() + skipCnt;
+			for(int j = 0; j < skipCnt; j++) {
+				if(recentChars[(startPos + j) & mask] == '\n') {
+					lineNum++;
+					columnNum = skipCnt - j;
+				}
+			}
+			coords.setStart(new ParserPos.Impl(startPos + skipCnt, lineNum, columnNum));
 		}
 
 	}
@@ -31,6 +31,14 @@ public class StringParserBuilder {
 	}
 
 
+	/** Build a thread safe pooling factory which can be shared by multiple threads
+	 * @see CharParserMatchableFactory.Concurrent
+	 */
+	public CharParserFactory buildConcurrent() {
+		return new CharParserMatchableFactory.Concurrent<CharParser>(name, compound, parsers.toArray(new CharParserMatchable[parsers.size()]));
+	}
+
+
 	/**
 	 * @see StringConditions.Start
 	 * @see StringConditions.End
@@ -101,6 +109,17 @@ public class StringParserBuilder {
 	}
 
 
+	/** Match balanced delimiters, combine with {@link #isCompound(boolean) isCompound(true)} to produce one token per nesting level
+	 * with a single parser per outermost level
+	 * @see CharConditions.Balanced
+	 */
+	public StringParserBuilder addBalancedDelimiters(String name, char open, char close) {
+		var cond = new CharConditions.Balanced(name, open, close);
+		this.parsers.add(cond);
+		return this;
+	}
+
+
 	/**
 	 * @see StringConditions.Literal
 	 */
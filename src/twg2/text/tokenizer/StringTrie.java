@@ -0,0 +1,195 @@
+package twg2.text.tokenizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/** An immutable trie of strings with Aho-Corasick failure links, shared by all copies of a string condition.<br>
+ * {@link StringConditions.Literal} only walks child edges, {@link StringConditions.End} also follows the failure links.
+ * States are ints, {@link #ROOT} is the empty string, each other state is a distinct prefix of one or more of the strings.
+ * Child edges are stored in flat arrays sorted by char, {@link #step(int, char)} follows failure links so a string search
+ * takes amortized constant time per char regardless of how many strings there are or how much of a string partially matched.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+final class StringTrie {
+	static final int ROOT = 0;
+	/** states with more child edges than this are binary searched */
+	static final int LINEAR_SEARCH_MAX = 8;
+
+	/** the child edges of state 's' are at indices [edgeStarts[s], edgeStarts[s + 1]) sorted by char */
+	final int[] edgeStarts;
+	final char[] edgeChars;
+	final int[] edgeTargets;
+	/** the length of each state's prefix */
+	final int[] depths;
+	/** true if a state's prefix is one of the strings */
+	final boolean[] terminals;
+	/** true if a {@link StringConditions.Literal} completes in a state, see {@link #initCompletes(String[])} */
+	final boolean[] completes;
+	/** the state of the longest proper suffix of each state's prefix which is also a state */
+	final int[] fails;
+	/** the longest state on each state's suffix chain (including itself) which is a complete string, {@link #ROOT} if none */
+	final int[] matchStates;
+	/** the length of the longest string */
+	final int maxLength;
+
+
+	StringTrie(String[] strs) {
+		// build a temporary trie with sorted children
+		var children = new ArrayList<TreeMap<Character, Integer>>();
+		var depthList = new ArrayList<Integer>();
+		var terminalList = new ArrayList<Boolean>();
+		children.add(new TreeMap<>());
+		depthList.add(0);
+		terminalList.add(false);
+		int maxLen = 0;
+		for(var str : strs) {
+			int state = ROOT;
+			for(int i = 0, size = str.length(); i < size; i++) {
+				var next = children.get(state).get(str.charAt(i));
+				if(next == null) {
+					next = children.size();
+					children.add(new TreeMap<>());
+					depthList.add(i + 1);
+					terminalList.add(false);
+					children.get(state).put(str.charAt(i), next);
+				}
+				state = next;
+			}
+			terminalList.set(state, true);
+			maxLen = Math.max(maxLen, str.length());
+		}
+
+		int stateCnt = children.size();
+		int edgeCnt = stateCnt - 1;
+		this.edgeStarts = new int[stateCnt + 1];
+		this.edgeChars = new char[edgeCnt];
+		this.edgeTargets = new int[edgeCnt];
+		this.depths = new int[stateCnt];
+		this.terminals = new boolean[stateCnt];
+		this.completes = new boolean[stateCnt];
+		this.fails = new int[stateCnt];
+		this.matchStates = new int[stateCnt];
+		this.maxLength = maxLen;
+
+		int e = 0;
+		for(int s = 0; s < stateCnt; s++) {
+			this.edgeStarts[s] = e;
+			for(var edge : children.get(s).entrySet()) {
+				this.edgeChars[e] = edge.getKey();
+				this.edgeTargets[e] = edge.getValue();
+				e++;
+			}
+			this.depths[s] = depthList.get(s);
+			this.terminals[s] = terminalList.get(s);
+		}
+		this.edgeStarts[stateCnt] = e;
+
+		initCompletes(strs);
+
+		// breadth first failure links, a state's failure link is always shallower than the state
+		var queue = new int[stateCnt];
+		int head = 0;
+		int tail = 0;
+		queue[tail++] = ROOT;
+		while(head < tail) {
+			int s = queue[head++];
+			for(int i = this.edgeStarts[s], end = this.edgeStarts[s + 1]; i < end; i++) {
+				int child = this.edgeTargets[i];
+				this.fails[child] = s == ROOT ? ROOT : step(this.fails[s], this.edgeChars[i]);
+				this.matchStates[child] = this.terminals[child] ? child : this.matchStates[this.fails[child]];
+				queue[tail++] = child;
+			}
+		}
+	}
+
+
+	/** A literal completes when the first of the strings which still match the accepted chars ends (so {@code "==", "="} matches {@code "=="}).
+	 * The strings which still match are kept in the order of a list of the strings which failed strings are removed from by moving
+	 * the last string into their place, the same as the original list based literal condition, so the first of them isn't always the lowest index string.
+	 * That order only depends on the accepted chars, so it is simulated once for each state here.
+	 */
+	private void initCompletes(String[] strs) {
+		int strCnt = strs.length;
+		var rootMatches = new int[strCnt];
+		for(int i = 0; i < strCnt; i++) {
+			rootMatches[i] = i;
+		}
+		// depth first, each pending state's list of the strings which still match
+		var pendingStates = new ArrayList<Integer>();
+		var pendingMatches = new ArrayList<int[]>();
+		pendingStates.add(ROOT);
+		pendingMatches.add(rootMatches);
+		while(!pendingStates.isEmpty()) {
+			int last = pendingStates.size() - 1;
+			int s = pendingStates.remove(last);
+			var matches = pendingMatches.remove(last);
+			int off = this.depths[s];
+			for(int e = this.edgeStarts[s], end = this.edgeStarts[s + 1]; e < end; e++) {
+				char ch = this.edgeChars[e];
+				var childMatches = matches.clone();
+				int size = childMatches.length;
+				boolean complete = false;
+				// iterate backward, removing strings which don't match and recording whether the first match ends here
+				for(int i = size - 1; i > -1; i--) {
+					var str = strs[childMatches[i]];
+					if(str.length() > off && str.charAt(off) == ch) {
+						complete = str.length() == off + 1;
+					}
+					else {
+						childMatches[i] = childMatches[size - 1];
+						size--;
+					}
+				}
+				int child = this.edgeTargets[e];
+				this.completes[child] = complete;
+				pendingStates.add(child);
+				pendingMatches.add(Arrays.copyOf(childMatches, size));
+			}
+		}
+	}
+
+
+	/**
+	 * @return the child of {@code state} for {@code ch}, or -1 if the state has no such child
+	 */
+	int child(int state, char ch) {
+		var chars = this.edgeChars;
+		int start = this.edgeStarts[state];
+		int end = this.edgeStarts[state + 1];
+		// wide states (for example the root of a large keyword set) are binary searched
+		if(end - start > LINEAR_SEARCH_MAX) {
+			int idx = Arrays.binarySearch(chars, start, end, ch);
+			return idx > -1 ? this.edgeTargets[idx] : -1;
+		}
+		for(int i = start; i < end; i++) {
+			char edgeCh = chars[i];
+			if(edgeCh == ch) {
+				return this.edgeTargets[i];
+			}
+			if(edgeCh > ch) {
+				break;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * @return the state for the longest suffix of {@code state}'s prefix followed by {@code ch} which is a prefix of one of the strings, {@link #ROOT} if none
+	 */
+	int step(int state, char ch) {
+		while(true) {
+			int next = child(state, ch);
+			if(next > -1) {
+				return next;
+			}
+			if(state == ROOT) {
+				return ROOT;
+			}
+			state = this.fails[state];
+		}
+	}
+
+}
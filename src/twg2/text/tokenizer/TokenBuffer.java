@@ -0,0 +1,222 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+
+/** A growable struct-of-arrays list of tokens, an alternative to per-token {@link TextFragmentConsumer} callbacks.<br>
+ * {@link CharMultiConditionParser} can append tokens directly to a buffer which is then read in bulk after each batch of input or at the end of the input.
+ * The {@code get*s()} methods return the backing arrays, only the first {@link #size()} elements are valid and the arrays
+ * may be replaced when the buffer grows.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class TokenBuffer {
+	int[] factoryIdxs;
+	int[] offsets;
+	int[] lengths;
+	int[] lineStarts;
+	int[] columnStarts;
+	int[] lineEnds;
+	int[] columnEnds;
+	int size;
+	/** the spans within tokens (see {@link SpanCharParser}), null unless {@link #setRecordSpans(boolean)} is enabled */
+	SpanBuffer spans;
+	/** per token, the end index (exclusive) of its spans in 'spans', each token's spans start at the previous token's end */
+	int[] spanEnds;
+
+
+	public TokenBuffer() {
+		this(64);
+	}
+
+
+	public TokenBuffer(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.factoryIdxs = new int[capacity];
+		this.offsets = new int[capacity];
+		this.lengths = new int[capacity];
+		this.lineStarts = new int[capacity];
+		this.columnStarts = new int[capacity];
+		this.lineEnds = new int[capacity];
+		this.columnEnds = new int[capacity];
+	}
+
+
+	/** Add a token
+	 * @param factoryIdx the index of the factory which matched the token
+	 */
+	public void add(int factoryIdx, int offset, int length, int lineStart, int columnStart, int lineEnd, int columnEnd) {
+		int i = size;
+		if(i == offsets.length) {
+			grow(i * 2);
+		}
+		factoryIdxs[i] = factoryIdx;
+		offsets[i] = offset;
+		lengths[i] = length;
+		lineStarts[i] = lineStart;
+		columnStarts[i] = columnStart;
+		lineEnds[i] = lineEnd;
+		columnEnds[i] = columnEnd;
+		if(spans != null) {
+			spanEnds[i] = spans.size();
+		}
+		size = i + 1;
+	}
+
+
+	/** Enable or disable recording the spans within tokens matched by {@link SpanCharParser}s which record spans
+	 * (for example the elements and separators of a list), the spans are added to {@link #getSpans()} before each token is added
+	 * @param recordSpans true to record spans, false (the default) to discard them
+	 */
+	public void setRecordSpans(boolean recordSpans) {
+		if(recordSpans && this.spans == null) {
+			this.spans = new SpanBuffer();
+			// tokens already in the buffer have no spans
+			this.spanEnds = new int[offsets.length];
+		}
+		else if(!recordSpans) {
+			this.spans = null;
+			this.spanEnds = null;
+		}
+	}
+
+
+	/**
+	 * @return the spans of all of the tokens in this buffer, see {@link #getSpanStart(int)} and {@link #getSpanEnd(int)}, or null if span recording isn't enabled
+	 */
+	public SpanBuffer getSpans() {
+		return spans;
+	}
+
+
+	/**
+	 * @return the index in {@link #getSpans()} of the first span of token {@code tokenIdx}
+	 */
+	public int getSpanStart(int tokenIdx) {
+		return tokenIdx > 0 ? spanEnds[tokenIdx - 1] : 0;
+	}
+
+
+	/**
+	 * @return the index in {@link #getSpans()} after the last span of token {@code tokenIdx}, equal to {@link #getSpanStart(int)} if the token has no spans
+	 */
+	public int getSpanEnd(int tokenIdx) {
+		return spanEnds[tokenIdx];
+	}
+
+
+	public int size() {
+		return size;
+	}
+
+
+	/** Remove all tokens, the buffer's capacity is kept
+	 */
+	public void clear() {
+		size = 0;
+		if(spans != null) {
+			spans.clear();
+		}
+	}
+
+
+	/** Pass tokens {@code [fromIdx, size())} to the consumer at each token's factory index
+	 */
+	public void replay(int fromIdx, TextFragmentConsumer[] consumers) {
+		for(int i = fromIdx, size = this.size; i < size; i++) {
+			consumers[factoryIdxs[i]].accept(offsets[i], lengths[i], lineStarts[i], columnStarts[i], lineEnds[i], columnEnds[i]);
+		}
+	}
+
+
+	/** Replace tokens {@code [start, end)} with all of the tokens in {@code src} in place, the tokens after {@code end} are moved
+	 * and their offsets and line numbers shifted. Spans are not supported, neither buffer may record spans
+	 * @param offsetShift the amount to add to the offset of each token after {@code end}
+	 * @param lineShift the amount to add to the line numbers of each token after {@code end}
+	 */
+	void splice(int start, int end, TokenBuffer src, int offsetShift, int lineShift) {
+		if(spans != null || src.spans != null) {
+			throw new IllegalStateException("cannot splice token buffers which record spans");
+		}
+		int srcSize = src.size;
+		int tail = size - end;
+		int newSize = start + srcSize + tail;
+		if(newSize > offsets.length) {
+			grow(Math.max(newSize, offsets.length * 2));
+		}
+		int dst = start + srcSize;
+		if(dst != end) {
+			System.arraycopy(factoryIdxs, end, factoryIdxs, dst, tail);
+			System.arraycopy(offsets, end, offsets, dst, tail);
+			System.arraycopy(lengths, end, lengths, dst, tail);
+			System.arraycopy(lineStarts, end, lineStarts, dst, tail);
+			System.arraycopy(columnStarts, end, columnStarts, dst, tail);
+			System.arraycopy(lineEnds, end, lineEnds, dst, tail);
+			System.arraycopy(columnEnds, end, columnEnds, dst, tail);
+		}
+		System.arraycopy(src.factoryIdxs, 0, factoryIdxs, start, srcSize);
+		System.arraycopy(src.offsets, 0, offsets, start, srcSize);
+		System.arraycopy(src.lengths, 0, lengths, start, srcSize);
+		System.arraycopy(src.lineStarts, 0, lineStarts, start, srcSize);
+		System.arraycopy(src.columnStarts, 0, columnStarts, start, srcSize);
+		System.arraycopy(src.lineEnds, 0, lineEnds, start, srcSize);
+		System.arraycopy(src.columnEnds, 0, columnEnds, start, srcSize);
+		for(int i = dst; i < newSize; i++) {
+			offsets[i] += offsetShift;
+			lineStarts[i] += lineShift;
+			lineEnds[i] += lineShift;
+		}
+		size = newSize;
+	}
+
+
+	public int[] getFactoryIndices() {
+		return factoryIdxs;
+	}
+
+
+	public int[] getOffsets() {
+		return offsets;
+	}
+
+
+	public int[] getLengths() {
+		return lengths;
+	}
+
+
+	public int[] getLineStarts() {
+		return lineStarts;
+	}
+
+
+	public int[] getColumnStarts() {
+		return columnStarts;
+	}
+
+
+	public int[] getLineEnds() {
+		return lineEnds;
+	}
+
+
+	public int[] getColumnEnds() {
+		return columnEnds;
+	}
+
+
+	private void grow(int capacity) {
+		factoryIdxs = Arrays.copyOf(factoryIdxs, capacity);
+		offsets = Arrays.copyOf(offsets, capacity);
+		lengths = Arrays.copyOf(lengths, capacity);
+		lineStarts = Arrays.copyOf(lineStarts, capacity);
+		columnStarts = Arrays.copyOf(columnStarts, capacity);
+		lineEnds = Arrays.copyOf(lineEnds, capacity);
+		columnEnds = Arrays.copyOf(columnEnds, capacity);
+		if(spanEnds != null) {
+			spanEnds = Arrays.copyOf(spanEnds, capacity);
+		}
+	}
+
+}
@@ -0,0 +1,185 @@
+package twg2.text.tokenizer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.analytics.TokenizationLogger;
+
+/** The immutable, compiled part of a {@link CharMultiConditionParser}: the factories, their first char dispatch table, and the optional {@link CharLiteralDfa}.<br>
+ * A spec can be shared by any number of threads, each thread creates its own lightweight {@link CharMultiConditionParser} session via
+ * {@link #newSession(TokenizationLogger, List)} or {@link #newSession(TokenizationLogger, TokenBuffer)} which only contains mutable parse state.
+ * Sessions pool their own parsers and create new parsers via {@link CharParserFactory#createUnpooledParser()}, so factory pools
+ * (i.e. {@link CharParserMatchableFactory.Reusable}) are never used by a session. Each session pool is sized by the spec's
+ * {@link #getSessionPoolPolicy() session pool policy}, see {@link CharMultiConditionParser#getPoolStats(int)} and {@link CharMultiConditionParser#trimIdlePools()}.
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class TokenizerSpec {
+	final CharParserFactory[] factories;
+	/** first char dispatch table, see {@link #createFirstCharDispatch(CharParserFactory[], int[])} */
+	final int[][][] firstCharDispatch;
+	/** the dispatch list for chars which are not the first char of any factory that provides {@link CharParserFactory#getFirstChars()} */
+	final int[] firstCharFallback;
+	/** optional DFA for the literal factories, null if not enabled or none of the factories are literals */
+	final CharLiteralDfa literalDfa;
+	final int compoundCount;
+	/** the policy used by each session's per-factory parser pools */
+	final ParserPoolPolicy sessionPoolPolicy;
+
+
+	/** Create a spec whose sessions use {@link CharParserMatchableFactory.Reusable#DEFAULT_POOL_POLICY}
+	 * @param compileLiterals true to compile all of the literal string/char factories into a {@link CharLiteralDfa} which matches them all at once,
+	 * false to try each factory one at a time
+	 * @param factories the factories, in priority order
+	 */
+	public TokenizerSpec(boolean compileLiterals, Collection<? extends CharParserFactory> factories) {
+		this(compileLiterals, factories, CharParserMatchableFactory.Reusable.DEFAULT_POOL_POLICY);
+	}
+
+
+	/**
+	 * @param compileLiterals see {@link #TokenizerSpec(boolean, Collection)}
+	 * @param factories the factories, in priority order
+	 * @param sessionPoolPolicy the sizing policy of each session's per-factory parser pools, policies are stateless so one policy is shared by all sessions
+	 */
+	public TokenizerSpec(boolean compileLiterals, Collection<? extends CharParserFactory> factories, ParserPoolPolicy sessionPoolPolicy) {
+		var cpfs = factories.toArray(new CharParserFactory[factories.size()]);
+		int compoundCnt = 0;
+		for(var cpf : cpfs) {
+			compoundCnt += (cpf.isCompound() ? 1 : 0);
+		}
+		this.factories = cpfs;
+		this.firstCharFallback = createFirstCharFallback(cpfs);
+		this.firstCharDispatch = createFirstCharDispatch(cpfs, this.firstCharFallback);
+		this.literalDfa = compileLiterals ? CharLiteralDfa.compile(cpfs) : null;
+		this.compoundCount = compoundCnt;
+		this.sessionPoolPolicy = sessionPoolPolicy;
+	}
+
+
+	public int size() {
+		return factories.length;
+	}
+
+
+	public CharParserFactory getFactory(int index) {
+		return factories[index];
+	}
+
+
+	public ParserPoolPolicy getSessionPoolPolicy() {
+		return sessionPoolPolicy;
+	}
+
+
+	/** Create a parse session which passes tokens to consumers
+	 * @param parseLog optional performance tracker, can be null
+	 * @param consumers the consumer for each factory, in the same order as this spec's factories
+	 */
+	public CharMultiConditionParser newSession(TokenizationLogger parseLog, List<? extends TextFragmentConsumer> consumers) {
+		if(consumers.size() != factories.length) {
+			throw new IllegalArgumentException("expected " + factories.length + " consumers, received " + consumers.size());
+		}
+		return new CharMultiConditionParser(this, parseLog, consumers.toArray(new TextFragmentConsumer[consumers.size()]), null, true);
+	}
+
+
+	/** Create a parse session which adds tokens to a {@link TokenBuffer}
+	 * @param parseLog optional performance tracker, can be null
+	 * @param tokenBuffer the buffer which tokens are added to
+	 */
+	public CharMultiConditionParser newSession(TokenizationLogger parseLog, TokenBuffer tokenBuffer) {
+		return new CharMultiConditionParser(this, parseLog, null, tokenBuffer, true);
+	}
+
+
+	/** Create a first char lookup table which maps each char to the ordered list of factory indices which should be tried for that char.
+	 * The table is split into 256 pages of 256 chars each (indexed by {@code ch >>> 8}), the first (Latin-1) page is always present,
+	 * other pages are only created if at least one factory has a first char in that page, missing pages and entries use {@code fallback}.<br>
+	 * Factories which return a {@link CharParserFactory#getFirstChars()} list are included only in the entries for their first chars.
+	 * Factories which don't, are included in every entry as a negative ({@code ~index}) value, meaning {@link CharParserFactory#isMatch(char, TextParser)} must be checked.
+	 * @param factories the factories, in priority order
+	 * @param fallback the result of {@link #createFirstCharFallback(CharParserFactory[])}
+	 * @return the dispatch table pages
+	 */
+	private static int[][][] createFirstCharDispatch(CharParserFactory[] factories, int[] fallback) {
+		var pages = new int[256][][];
+		pages[0] = new int[256][];
+
+		// the factories are iterated in order, so each entry's list of indices is sorted
+		for(int i = 0, size = factories.length; i < size; i++) {
+			var firstChars = factories[i].getFirstChars();
+			if(firstChars == null) {
+				continue;
+			}
+			for(int j = 0, sizeJ = firstChars.length; j < sizeJ; j++) {
+				char ch = firstChars[j];
+				var page = pages[ch >>> 8];
+				if(page == null) {
+					page = pages[ch >>> 8] = new int[256][];
+				}
+				var idxs = page[ch & 0xFF];
+				// factories aren't required to return distinct chars
+				if(idxs == null || idxs[idxs.length - 1] != i) {
+					idxs = idxs == null ? new int[1] : Arrays.copyOf(idxs, idxs.length + 1);
+					idxs[idxs.length - 1] = i;
+					page[ch & 0xFF] = idxs;
+				}
+			}
+		}
+
+		// merge each entry with the fallback factories (which must be checked for every char) and fill in empty entries
+		for(var page : pages) {
+			if(page != null) {
+				for(int j = 0; j < 256; j++) {
+					page[j] = page[j] != null ? mergeDispatchIndices(page[j], fallback) : fallback;
+				}
+			}
+		}
+
+		return pages;
+	}
+
+
+	/**
+	 * @return the {@code ~index} of each factory which does not provide {@link CharParserFactory#getFirstChars()}, in order
+	 */
+	private static int[] createFirstCharFallback(CharParserFactory[] factories) {
+		int cnt = 0;
+		for(var factory : factories) {
+			cnt += (factory.getFirstChars() == null ? 1 : 0);
+		}
+		var fallback = new int[cnt];
+		for(int i = 0, j = 0, size = factories.length; i < size; i++) {
+			if(factories[i].getFirstChars() == null) {
+				fallback[j++] = ~i;
+			}
+		}
+		return fallback;
+	}
+
+
+	/** Merge sorted factory indices with sorted {@code ~index} fallback indices into a single list sorted by factory index
+	 */
+	private static int[] mergeDispatchIndices(int[] idxs, int[] fallback) {
+		if(fallback.length == 0) {
+			return idxs;
+		}
+		var res = new int[idxs.length + fallback.length];
+		int a = 0;
+		int b = 0;
+		for(int i = 0, size = res.length; i < size; i++) {
+			if(b >= fallback.length || (a < idxs.length && idxs[a] < ~fallback[b])) {
+				res[i] = idxs[a++];
+			}
+			else {
+				res[i] = fallback[b++];
+			}
+		}
+		return res;
+	}
+
+}
@@ -0,0 +1,134 @@
+package twg2.text.tokenizer.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import twg2.collections.primitiveCollections.CharArrayList;
+import twg2.parser.condition.text.CharParserPredicate;
+import twg2.text.tokenizer.CharBitSet;
+
+/** Compares {@link CharBitSet} membership tests against the first char predicate strategies it replaced
+ * (two char compare, linear array scan, {@link CharArrayList#contains(char)}, and sorted binary search) for increasing first char set sizes.
+ * Each strategy is run in its own JVM so that the predicate call site stays monomorphic like it is in a real factory.
+ * Run with: {@code java twg2.text.tokenizer.test.CharBitSetBenchmark [inputLength]}
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharBitSetBenchmark {
+	static final String[] STRATEGIES = { "two-compare", "linear", "list", "sorted", "bitset" };
+	static final int[] COUNTS = { 2, 3, 8, 19, 50, 200, 1000 };
+
+
+	public static void main(String[] args) throws Exception {
+		if(args.length > 1) {
+			runStrategy(args[0], Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+			return;
+		}
+		int inputLen = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+		var java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+		System.out.printf("%6s", "chars");
+		for(var strategy : STRATEGIES) {
+			System.out.printf(" %12s", strategy);
+		}
+		System.out.println();
+
+		for(int count : COUNTS) {
+			System.out.printf("%6d", count);
+			for(var strategy : STRATEGIES) {
+				if(strategy.equals("two-compare") && count != 2) {
+					System.out.printf(" %12s", "-");
+					continue;
+				}
+				var cmd = new ArrayList<String>();
+				cmd.addAll(Arrays.asList(java, "-cp", System.getProperty("java.class.path"), CharBitSetBenchmark.class.getName()));
+				cmd.addAll(Arrays.asList(strategy, Integer.toString(count), Integer.toString(inputLen)));
+				var proc = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+				var res = new String(proc.getInputStream().readAllBytes()).trim();
+				proc.waitFor();
+				System.out.printf(" %12s", res);
+			}
+			System.out.println();
+		}
+	}
+
+
+	private static void runStrategy(String strategy, int count, int inputLen) {
+		var rand = new Random(1);
+		// mostly ASCII source text with some non-ASCII chars
+		var input = new char[inputLen];
+		for(int i = 0; i < inputLen; i++) {
+			input[i] = rand.nextInt(20) == 0 ? (char)(0x100 + rand.nextInt(0x2000)) : (char)(32 + rand.nextInt(95));
+		}
+		var chars = createChars(rand, count);
+
+		CharParserPredicate matcher;
+		switch(strategy) {
+		case "two-compare":
+			char ch1 = chars[0];
+			char ch2 = chars[1];
+			matcher = (ch, buf) -> ch1 == ch || ch2 == ch;
+			break;
+		case "linear":
+			matcher = (ch, buf) -> {
+				for(int i = 0, size = chars.length; i < size; i++) {
+					if(chars[i] == ch) { return true; }
+				}
+				return false;
+			};
+			break;
+		case "list":
+			var list = new CharArrayList();
+			for(char ch : chars) {
+				list.add(ch);
+			}
+			matcher = (ch, buf) -> list.contains(ch);
+			break;
+		case "sorted":
+			var sorted = chars.clone();
+			Arrays.sort(sorted);
+			matcher = (ch, buf) -> Arrays.binarySearch(sorted, ch) > -1;
+			break;
+		case "bitset":
+			matcher = CharBitSet.of(chars);
+			break;
+		default:
+			throw new IllegalArgumentException("unknown strategy '" + strategy + "'");
+		}
+
+		System.out.printf("%.2f ns%n", nanosPerChar(9, input, matcher));
+	}
+
+
+	private static char[] createChars(Random rand, int count) {
+		var set = new CharArrayList();
+		// punctuation and letters first (typical operator and keyword first chars), then non-ASCII
+		while(set.size() < count) {
+			char ch = set.size() < 80 ? (char)(33 + rand.nextInt(94)) : (char)(0x100 + rand.nextInt(0x2000));
+			if(!set.contains(ch)) {
+				set.add(ch);
+			}
+		}
+		return set.toArray();
+	}
+
+
+	private static double nanosPerChar(int rounds, char[] input, CharParserPredicate matcher) {
+		long best = Long.MAX_VALUE;
+		int matches = 0;
+		for(int r = 0; r < rounds; r++) {
+			long start = System.nanoTime();
+			for(int i = 0, size = input.length; i < size; i++) {
+				matches += matcher.test(input[i], null) ? 1 : 0;
+			}
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		if(matches < 0) {
+			System.out.println(matches);
+		}
+		return best / (double)input.length;
+	}
+
+}
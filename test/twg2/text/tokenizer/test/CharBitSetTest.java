@@ -0,0 +1,57 @@
+package twg2.text.tokenizer.test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.text.tokenizer.CharBitSet;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharBitSetTest {
+
+	@Test
+	public void contains() {
+		var chars = new char[] { 0, '\n', '$', '?', '@', 'z', 127, 128, 0xFF, 0x100, 0x3B1, 0xFFFF, '$' };
+		var set = CharBitSet.of(chars);
+		Assert.assertEquals(12, set.size());
+
+		var sorted = Arrays.copyOf(chars, chars.length - 1);
+		Arrays.sort(sorted);
+		Assert.assertArrayEquals(sorted, set.toArray());
+
+		for(int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+			boolean expect = Arrays.binarySearch(sorted, (char)ch) > -1;
+			Assert.assertEquals("char " + ch, expect, set.contains((char)ch));
+			Assert.assertEquals("char " + ch, expect, set.test((char)ch, null));
+		}
+
+		var empty = CharBitSet.of();
+		Assert.assertEquals(0, empty.size());
+		Assert.assertFalse(empty.contains('a'));
+		Assert.assertFalse(empty.contains((char)0x100));
+	}
+
+
+	@Test
+	public void matcherForAnySize() {
+		var rand = new Random(1);
+		for(int count : new int[] { 1, 2, 3, 19, 20, 200, 2000 }) {
+			var chars = new char[count];
+			for(int i = 0; i < count; i++) {
+				chars[i] = (char)rand.nextInt(count < 100 ? 128 : 0x3000);
+			}
+			var matcher = CharBitSet.matcherFor(chars);
+			var sorted = chars.clone();
+			Arrays.sort(sorted);
+			for(int ch = 0; ch < 0x3100; ch++) {
+				Assert.assertEquals(count + " chars, char " + ch, Arrays.binarySearch(sorted, (char)ch) > -1, matcher.test((char)ch, null));
+			}
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharClass;
+import twg2.text.tokenizer.CharConditionPipe;
+import twg2.text.tokenizer.CharConditions;
+import twg2.text.tokenizer.Inclusion;
+import twg2.text.tokenizer.OffsetsOnlyTextParser;
+import twg2.text.tokenizer.StringConditions;
+
+/** Measures a {@link CharConditionPipe.RepeatableSeparator} parsing separated lists ({@code 1, 22, 333, ...}) with a wide set of separator
+ * conditions, from a few long lists (cost per element) to many short lists (cost per {@code recycle()}), and short lists each parsed by a new {@code copy()}.
+ * Run with: {@code java twg2.text.tokenizer.test.CharConditionPipeBenchmark [separators]}
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharConditionPipeBenchmark {
+
+	public static void main(String[] args) {
+		int separatorCnt = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+		int rounds = 7;
+		int totalElements = 2_000_000;
+
+		var pipe = createListPipe(separatorCnt);
+		System.out.printf("separator conditions: %d%n", separatorCnt);
+		for(int listSize : new int[] { 100_000, 1000, 10, 2 }) {
+			run(pipe, listSize, totalElements / listSize, rounds, false);
+		}
+		run(pipe, 2, totalElements / 2, rounds, true);
+	}
+
+
+	private static void run(CharParser pipe, int listSize, int lists, int rounds, boolean copy) {
+		var list = createList(listSize);
+		long best = bestOf(rounds, () -> {
+			for(int i = 0; i < lists; i++) {
+				parse(copy ? pipe.copy() : pipe.copyOrReuse(), list);
+			}
+		});
+		System.out.printf("  %7d elements per list%s: %8.2f M elements/s%n", listSize, copy ? " (copy)" : "", (lists * (long)listSize) / (best / 1e3));
+	}
+
+
+	static CharParser createListPipe(int separatorCnt) {
+		var element = new CharConditions.Contains("number", CharClass.range('0', '9'), Inclusion.INCLUDE);
+		// one separator which is used plus unused alternatives which are still peeked at and reset for each element
+		var separators = new ArrayList<CharParser>();
+		separators.add(new StringConditions.Literal("comma", new String[] { ", " }, Inclusion.INCLUDE));
+		for(int i = 1; i < separatorCnt; i++) {
+			separators.add(new StringConditions.Literal("separator " + i, new String[] { "|" + i + "|" }, Inclusion.INCLUDE));
+		}
+		return CharConditionPipe.createPipeRepeatableSeparator("list", Arrays.asList(element), separators);
+	}
+
+
+	static String createList(int size) {
+		var sb = new StringBuilder();
+		for(int i = 0; i < size; i++) {
+			if(i > 0) {
+				sb.append(", ");
+			}
+			sb.append(i % 1000);
+		}
+		return sb.toString();
+	}
+
+
+	private static void parse(CharParser cond, String src) {
+		TextParser buf = new OffsetsOnlyTextParser(src);
+		while(buf.hasNext()) {
+			cond.acceptNext(buf.nextChar(), buf);
+		}
+		if(!cond.isComplete()) {
+			throw new IllegalStateException("list not parsed: " + src.substring(0, Math.min(src.length(), 40)));
+		}
+	}
+
+
+	private static long bestOf(int rounds, Runnable task) {
+		long best = Long.MAX_VALUE;
+		for(int i = 0; i < rounds; i++) {
+			long start = System.nanoTime();
+			task.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+}
@@ -5,7 +5,9 @@ import static twg2.text.tokenizer.test.ParserTestUtils.parseTest;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import twg2.collections.primitiveCollections.CharArrayList;
@@ -17,6 +19,7 @@ import twg2.ranges.CharSearchSet;
 import twg2.text.tokenizer.CharConditionPipe;
 import twg2.text.tokenizer.CharConditions;
 import twg2.text.tokenizer.Inclusion;
+import twg2.text.tokenizer.SpanCharParser;
 import twg2.text.tokenizer.StringConditions;
 
 /**
@@ -47,6 +50,25 @@ public class CharConditionPipeTest {
 	}
 
 
+	@Test
+	public void conditionArraysAreCopiedTest() {
+		String name = "AllRequired";
+		var conds = new CharParserMatchable[] {
+			new CharConditions.Literal("<", CharArrayList.of('<'), Inclusion.INCLUDE),
+			new CharConditions.End(">", CharArrayList.of('>'), Inclusion.INCLUDE)
+		};
+
+		var pipeCond = CharConditionPipe.createPipeAllRequired(name, conds);
+		// changing the caller's array must not change the pipe's definitions or the conditions of its copies
+		conds[1] = new CharConditions.End(";", CharArrayList.of(';'), Inclusion.INCLUDE);
+
+		for(var cond : List.of(pipeCond, pipeCond.copy())) {
+			parseTest(true, false, name, cond, "<abc>");
+			parseTest(false, false, name, cond, "<abc;");
+		}
+	}
+
+
 	@Test
 	public void optionalSuffixTest() throws IOException {
 		String name = "OptionalSuffix";
@@ -80,6 +102,34 @@ public class CharConditionPipeTest {
 	}
 
 
+	@Test
+	public void optionalSuffixWideSetTest() {
+		String name = "OptionalSuffixWideSet";
+		var condSet0 = list(
+			new CharConditions.Literal("<", CharArrayList.of('<'), Inclusion.INCLUDE),
+			new CharConditions.End(">", CharArrayList.of('>'), Inclusion.INCLUDE)
+		);
+
+		// more optional conditions than fit in one peek ahead bit set word, several share prefixes
+		var condSetOptional = new ArrayList<StringConditions.Literal>();
+		for(int i = 0; i < 70; i++) {
+			condSetOptional.add(new StringConditions.Literal("[" + i + "]", new String[] { "[" + i + "]" }, Inclusion.INCLUDE));
+		}
+
+		var pipeCond = CharConditionPipe.createPipeOptionalSuffix(name, condSet0, condSetOptional);
+
+		parseTest(false, false, name, pipeCond, "<abc>[6");
+		parseTest(false, false, name, pipeCond, "<abc>[66");
+
+		parseTest(true, false, name, pipeCond, "<abc>[0]");
+		parseTest(true, false, name, pipeCond, "<abc>[6]");
+		parseTest(true, false, name, pipeCond, "<abc>[66]");
+		parseTest(true, false, name, pipeCond, "<abc>[69]");
+		parseTest(true, false, name, pipeCond, "<abc>[70]", "<abc>");
+		parseTest(true, false, name, pipeCond, "<abc>[6;", "<abc>");
+	}
+
+
 	@Test
 	public void repeatableSparatorTest() {
 		String name = "RepeatableSeparator";
@@ -108,6 +158,31 @@ public class CharConditionPipeTest {
 	}
 
 
+	@Test
+	public void repeatableSeparatorSpansTest() {
+		String name = "RepeatableSeparatorSpans";
+		var condSet0 = list(
+			new CharConditions.Literal("<", CharArrayList.of('<'), Inclusion.INCLUDE),
+			new CharConditions.End(">", CharArrayList.of('>'), Inclusion.INCLUDE)
+		);
+
+		var condSetOptional = list(
+			new StringConditions.Literal("separator", new String[] { ", " }, Inclusion.INCLUDE)
+		);
+
+		var pipeCond = CharConditionPipe.createPipeRepeatableSeparator(name, condSet0, condSetOptional).setRecordSpans(true);
+
+		// each element is one span even though it is matched by two conditions, copies and recycled pipes also record spans
+		for(var cond : List.of(pipeCond, pipeCond.copy(), pipeCond.copy().recycle())) {
+			parseTest(true, false, name, cond, "<abc>, <d>, <>;", "<abc>, <d>, <>");
+			Assert.assertEquals("[0:0+5, 1:5+2, 0:7+3, 1:10+2, 0:12+2]", ((SpanCharParser)cond).getSpans().toString());
+		}
+
+		var noSpans = CharConditionPipe.createPipeRepeatableSeparator(name, condSet0, condSetOptional);
+		Assert.assertNull(noSpans.copy().getSpans());
+	}
+
+
 	@Test
 	public void repeatableSingleSeparatorLiteralTest() {
 		String name = "RepeatableSeparator";
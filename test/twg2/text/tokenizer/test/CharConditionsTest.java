@@ -2,11 +2,13 @@ package twg2.text.tokenizer.test;
 
 import static twg2.text.tokenizer.test.ParserTestUtils.parseTest;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import twg2.collections.primitiveCollections.CharArrayList;
 import twg2.parser.condition.text.CharParser;
 import twg2.ranges.CharSearchSet;
+import twg2.text.tokenizer.CharClass;
 import twg2.text.tokenizer.CharConditions;
 import twg2.text.tokenizer.Inclusion;
 
@@ -57,6 +59,55 @@ public class CharConditionsTest {
 	}
 
 
+	@Test
+	public void balancedCondition() {
+		String name = "BalancedCondition";
+		CharParser cond = new CharConditions.Balanced(name, '(', ')');
+
+		parseTest(true, false, name, cond, "()");
+		parseTest(true, false, name, cond, "(a(b)c)");
+		parseTest(true, false, name, cond, "(".repeat(50) + "x" + ")".repeat(50));
+		parseTest(false, false, name, cond, "(a(b)");
+		parseTest(false, true, name, cond, "a(b)");
+		parseTest(false, true, name, cond, "(a)b");
+	}
+
+
+	@Test
+	public void charClassConditions() {
+		var digits = CharClass.category(Character.DECIMAL_DIGIT_NUMBER);
+		var letters = CharClass.builder().addRange('a', 'z').addRange('A', 'Z').addCategory(Character.OTHER_LETTER).addChar('_').build();
+		var notQuote = CharClass.builder().addChars('"', '\\').negate().build();
+
+		Assert.assertTrue(digits.contains('7'));
+		Assert.assertTrue(digits.contains('\u0663')); // Arabic-Indic three
+		Assert.assertFalse(digits.contains('a'));
+		Assert.assertTrue(letters.contains('\u4E2D'));
+		Assert.assertFalse(letters.contains('-'));
+		Assert.assertFalse(notQuote.contains('"'));
+		Assert.assertTrue(notQuote.contains('\uFFFF'));
+		Assert.assertEquals("[a-zA-Z\\p{5}_]", letters.toString());
+
+		String name = "CharClassCondition";
+		CharParser cond = new CharConditions.Contains(name, digits, Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "2026");
+		parseTest(true, false, name, cond, "\u0661\u0662");
+		parseTest(true, false, name, cond, "x1", "1");
+
+		cond = new CharConditions.ContainsFirstSpecial(name, letters, CharClass.builder().addAll(letters).addAll(digits).build(), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "_a1\u4E2D");
+		parseTest(true, false, name, cond, "1a", "a");
+
+		cond = new CharConditions.End(name, CharClass.of('"'), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "abc\"");
+		parseTest(false, true, name, cond, "\"a\"");
+
+		cond = new CharConditions.Literal(name, notQuote, Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "\u00E9");
+		parseTest(false, true, name, cond, "\\");
+	}
+
+
 	@Test
 	public void containsFirstSpecialCharCondition() {
 		String name = "ContainsFirstSpecialCondition";
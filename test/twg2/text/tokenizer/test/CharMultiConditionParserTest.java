@@ -0,0 +1,441 @@
+package twg2.text.tokenizer.test;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.parser.textFragment.TextFragmentRef;
+import twg2.parser.textFragment.TextFragmentRefImplMut;
+import twg2.parser.textParser.TextCharsParser;
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharClass;
+import twg2.text.tokenizer.CharConditionPipe;
+import twg2.text.tokenizer.CharConditions;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.CharParserFactory;
+import twg2.text.tokenizer.Inclusion;
+import twg2.text.tokenizer.MappedFileText;
+import twg2.text.tokenizer.OffsetsOnlyTextParser;
+import twg2.text.tokenizer.ReaderTextParser;
+import twg2.text.tokenizer.StringConditions;
+import twg2.text.tokenizer.StringParserBuilder;
+import twg2.text.tokenizer.TokenBuffer;
+import twg2.text.tokenizer.analytics.TokenizationLogger;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharMultiConditionParserTest {
+	static final List<String> LONGEST_FIRST_SRCS = List.of("a==b=c", "a=>>b=>c==>", "+=+==+", "<<<==<=<<<<a", "=>=>>===", "<==<=<<<=");
+
+
+	@Test
+	public void firstCharDispatch() {
+		for(boolean reusable : new boolean[] { false, true }) {
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, false, reusable, false));
+			// factories which don't provide first chars must produce identical results
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, true, reusable, false));
+		}
+	}
+
+
+	@Test
+	public void compiledLiterals() {
+		Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, false, true, true));
+
+		// overlapping literals from multiple factories and input that ends part way through literals must produce identical results
+		var strs = List.of("x => a/=b+=+ c: +== /=b ==>", "+=+=>", "=>/=b", ": +== /=b;", "/=/=b+=+c");
+		for(var str : strs) {
+			for(int i = 0; i <= str.length(); i++) {
+				var subStr = str.substring(0, i);
+				Assert.assertEquals(subStr, ParserTestUtils.tokenize(subStr, false, false, false), ParserTestUtils.tokenize(subStr, false, false, true));
+			}
+		}
+
+		// literals listed before a shorter literal which is their prefix match the longer literal, the same as the interpreted factories
+		Assert.assertEquals(List.of("0 '=='"), tokenizeLongestFirst("==", true, false));
+		Assert.assertEquals(List.of("4 'x'"), tokenizeLongestFirst("=x", true, false));
+		Assert.assertEquals(List.of(), tokenizeLongestFirst("=", true, false));
+		for(var str : LONGEST_FIRST_SRCS) {
+			for(int i = 0; i <= str.length(); i++) {
+				var subStr = str.substring(0, i);
+				Assert.assertEquals(subStr, tokenizeLongestFirst(subStr, false, false), tokenizeLongestFirst(subStr, true, false));
+			}
+		}
+	}
+
+
+	@Test
+	public void advanceParsersTogether() {
+		for(boolean compileLiterals : new boolean[] { false, true }) {
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, false, true, compileLiterals, true));
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, true, true, compileLiterals, true));
+			var randSrc = ParserTestUtils.createSource(new Random(13), 200);
+			Assert.assertEquals(ParserTestUtils.tokenize(randSrc, false, true, false), ParserTestUtils.tokenize(randSrc, false, true, compileLiterals, true));
+
+			var strs = List.of("x => a/=b+=+ c: +== /=b ==>", "+=+=>", "=>/=b", ": +== /=b;", "/=/=b+=+c", "a // b\n/\"c\"//=");
+			for(var str : strs) {
+				for(int i = 0; i <= str.length(); i++) {
+					var subStr = str.substring(0, i);
+					Assert.assertEquals(subStr, ParserTestUtils.tokenize(subStr, false, false, false), ParserTestUtils.tokenize(subStr, false, false, compileLiterals, true));
+				}
+			}
+
+			for(var str : LONGEST_FIRST_SRCS) {
+				for(int i = 0; i <= str.length(); i++) {
+					var subStr = str.substring(0, i);
+					Assert.assertEquals(subStr, tokenizeLongestFirst(subStr, false, false), tokenizeLongestFirst(subStr, compileLiterals, true));
+				}
+			}
+		}
+	}
+
+
+	@Test
+	public void skipAheadCompoundParsers() {
+		for(boolean advanceTogether : new boolean[] { false, true }) {
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, false, true, false, advanceTogether, true, null));
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, ParserTestUtils.tokenize(ParserTestUtils.SAMPLE_SRC, true, false, true, advanceTogether, true, null));
+			for(int seed = 0; seed < 5; seed++) {
+				var randSrc = ParserTestUtils.createSource(new Random(seed), 200);
+				Assert.assertEquals(ParserTestUtils.tokenize(randSrc, false, true, false), ParserTestUtils.tokenize(randSrc, false, true, false, advanceTogether, true, null));
+			}
+		}
+
+		// deeply nested blocks, the outer blocks are only waiting for their closing char
+		var sb = new StringBuilder();
+		for(int i = 0; i < 40; i++) {
+			sb.append(i % 2 == 0 ? "{\n" : "(");
+		}
+		for(int i = 0; i < 20; i++) {
+			sb.append("a = (b + 12) // c }\n\"d)\" /= {e}\n");
+		}
+		for(int i = 39; i > -1; i--) {
+			sb.append(i % 2 == 0 ? "}\n" : ")");
+		}
+		var nestedSrc = sb.toString();
+		var acceptCounts = new int[2];
+		var expectNested = ParserTestUtils.tokenize(nestedSrc, false, true, false, false, false, countAcceptNext(acceptCounts, 0));
+		Assert.assertEquals(expectNested, ParserTestUtils.tokenize(nestedSrc, false, true, false, false, true, countAcceptNext(acceptCounts, 1)));
+		Assert.assertTrue("compound acceptNext() calls " + acceptCounts[1] + " with skip ahead, " + acceptCounts[0] + " without", acceptCounts[1] * 10 < acceptCounts[0]);
+	}
+
+
+	@Test
+	public void balancedDelimiters() {
+		var stacked = ParserTestUtils.createFactories(true);
+		var balanced = new ArrayList<>(stacked);
+		balanced.set(0, new StringParserBuilder("{}").addBalancedDelimiters("{}", '{', '}').isCompound(true).build(true));
+		balanced.set(1, new StringParserBuilder("()").addBalancedDelimiters("()", '(', ')').isCompound(true).build(true));
+
+		var nested = new StringBuilder();
+		for(int i = 0; i < 30; i++) {
+			nested.append(i % 10 == 9 ? "{ a: " : "(b + ");
+		}
+		nested.append("\"}\" // )\n");
+		for(int i = 29; i > -1; i--) {
+			nested.append(i % 10 == 9 ? " }" : " 1)");
+		}
+		var srcs = new ArrayList<String>(List.of(ParserTestUtils.SAMPLE_SRC, nested.toString(), "((a) (b (c)))", "(((", ")))", "(a))(b"));
+		for(int seed = 0; seed < 5; seed++) {
+			srcs.add(ParserTestUtils.createSource(new Random(seed), 200));
+		}
+
+		for(var str : srcs) {
+			var expectTokens = tokenize(str, stacked, false, null);
+			for(boolean skipAhead : new boolean[] { false, true }) {
+				Assert.assertEquals(str, expectTokens, tokenize(str, balanced, skipAhead, null));
+			}
+		}
+
+		// one parser per outermost level regardless of the nesting depth
+		var maxDepth = new int[1];
+		tokenize("((((((((((a))))))))))", balanced, false, maxDepth);
+		Assert.assertEquals(1, maxDepth[0]);
+		tokenize("((((((((((a))))))))))", stacked, false, maxDepth);
+		Assert.assertEquals(10, maxDepth[0]);
+	}
+
+
+	@Test
+	public void scanCharRuns() {
+		var srcs = new ArrayList<String>(List.of(ParserTestUtils.SAMPLE_SRC, "abc", "a.b..c. 12345", "x. ", "$a.b.c\t\t 9", "   "));
+		for(int seed = 0; seed < 5; seed++) {
+			var str = ParserTestUtils.createSource(new Random(seed), 200);
+			srcs.add(str);
+			// whitespace heavy and minified versions with longer identifier and number runs
+			srcs.add(str.replace(" ", "    \t ").replace("\n", "\n\t\t        ").replace("var", "variableWithALongName.member"));
+			srcs.add(str.replace(" ", "").replace("\n", "").replace("12", "1234567890123"));
+		}
+
+		for(var str : srcs) {
+			var expectTokens = tokenizeRuns(TextCharsParser.of(str), false);
+			Assert.assertEquals(str, expectTokens, tokenizeRuns(TextCharsParser.of(str), true));
+			Assert.assertEquals(str, expectTokens, tokenizeRuns(ReaderTextParser.of(new StringReader(str)), true));
+			// runs which span window refills (the minified sources have unterminated comments which are longer than a small window)
+			if(str.indexOf('\n') > -1) {
+				Assert.assertEquals(str, expectTokens, tokenizeRuns(new ReaderTextParser(new StringReader(str), 128), true));
+			}
+
+			// offsets only inputs, including eight byte at a time scanning of Latin-1 bytes
+			var expectOffsets = tokenizeRuns(new OffsetsOnlyTextParser(str), false);
+			Assert.assertEquals(str, expectOffsets, tokenizeRuns(new OffsetsOnlyTextParser(str), true));
+			var bytes = new MappedFileText.ByteCharSequence(ByteBuffer.wrap(str.getBytes(StandardCharsets.ISO_8859_1)));
+			Assert.assertEquals(str, expectOffsets, tokenizeRuns(new OffsetsOnlyTextParser(bytes), true));
+		}
+	}
+
+
+	@Test
+	public void incompleteTokenAtEndOfInput() {
+		// unterminated non-compound tokens at the end of the input fail and the remaining input is still tokenized
+		Assert.assertEquals(List.of("operator '+' 1:1", "operator '=' 1:2"), ParserTestUtils.tokenize("+=", false, false, false));
+		Assert.assertEquals(List.of("identifier 'a' 1:1", "operator '/' 1:3", "operator '/' 1:4", "identifier 'b' 1:6"), ParserTestUtils.tokenize("a // b", false, false, false));
+	}
+
+
+	@Test
+	public void tokenBufferOutput() {
+		var tokens = new TokenBuffer(2);
+		var parser = new CharMultiConditionParser(null, true, tokens, ParserTestUtils.createFactories(true));
+		var buf = TextCharsParser.of(ParserTestUtils.SAMPLE_SRC);
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			parser.parse(ch, buf);
+		}
+
+		Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS.size(), tokens.size());
+		var res = new ArrayList<String>();
+		tokens.replay(0, ParserTestUtils.createConsumers(ParserTestUtils.SAMPLE_SRC, res).toArray(new TextFragmentConsumer[0]));
+		Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, res);
+		// the raw arrays contain the same tokens
+		int last = tokens.size() - 1;
+		Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS.get(last), "{} '" + ParserTestUtils.SAMPLE_SRC.substring(tokens.getOffsets()[last], tokens.getOffsets()[last] + tokens.getLengths()[last]) + "' " + tokens.getLineStarts()[last] + ":" + tokens.getColumnStarts()[last]);
+		Assert.assertEquals(0, tokens.getFactoryIndices()[last]);
+
+		tokens.clear();
+		Assert.assertEquals(0, tokens.size());
+	}
+
+
+	@Test
+	public void tokenBufferSpans() {
+		var listPipe = CharConditionPipe.createPipeRepeatableSeparator("list",
+			List.of(new CharConditions.Contains("number", CharClass.range('0', '9'), Inclusion.INCLUDE)),
+			List.of(new StringConditions.Literal("separator", new String[] { ", " }, Inclusion.INCLUDE))
+		).setRecordSpans(true);
+		var factories = List.of(
+			new StringParserBuilder("list").addConditionMatcher(listPipe).build(true),
+			new StringParserBuilder("identifier").addConditionMatcher(CharConditions.Identifier.newInstance("identifier", false)).build(true),
+			new StringParserBuilder("whitespace").addCharMatcher("whitespace", new char[] { ' ' }).build(true)
+		);
+		var text = "x 10, 20, 300 y 4";
+
+		for(boolean together : new boolean[] { false, true }) {
+			var tokens = new TokenBuffer(2);
+			tokens.setRecordSpans(true);
+			var parser = new CharMultiConditionParser(null, false, tokens, factories);
+			parser.setAdvanceParsersTogether(together);
+			var buf = new OffsetsOnlyTextParser(text);
+			while(buf.hasNext()) {
+				parser.parse(buf.nextChar(), buf);
+			}
+
+			var res = new ArrayList<String>();
+			var spans = tokens.getSpans();
+			for(int i = 0; i < tokens.size(); i++) {
+				var sb = new StringBuilder(text.substring(tokens.getOffsets()[i], tokens.getOffsets()[i] + tokens.getLengths()[i]));
+				for(int k = tokens.getSpanStart(i), end = tokens.getSpanEnd(i); k < end; k++) {
+					int off = spans.getOffsets()[k];
+					sb.append(" ").append(spans.getSetIndices()[k]).append("'").append(text, off, off + spans.getLengths()[k]).append("'");
+				}
+				res.add(sb.toString());
+			}
+			Assert.assertEquals(List.of("x", " ", "10, 20, 300 0'10' 1', ' 0'20' 1', ' 0'300'", " ", "y", " ", "4 0'4'"), res);
+		}
+	}
+
+
+	@Test
+	public void compoundParsersDontAllocate() {
+		var threadMx = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(threadMx instanceof com.sun.management.ThreadMXBean);
+		var allocMx = (com.sun.management.ThreadMXBean)threadMx;
+		Assume.assumeTrue(allocMx.isThreadAllocatedMemorySupported() && allocMx.isThreadAllocatedMemoryEnabled());
+
+		// nested compound tokens only, using a parser which doesn't allocate, so any allocations come from CharMultiConditionParser
+		var sb = new StringBuilder();
+		for(int i = 0; i < 2000; i++) {
+			sb.append("((()) ()(()())) (((())))\n");
+		}
+		var src = sb.toString();
+		var tokens = new TokenBuffer(1 << 16);
+		var parser = new CharMultiConditionParser(null, false, tokens, List.of(new ParenParser.Factory()));
+		long threadId = Thread.currentThread().getId();
+
+		// warm up, then keep the lowest measurement to ignore one-off allocations (i.e. JIT compilation)
+		double minBytesPerToken = Double.MAX_VALUE;
+		for(int rep = 0; rep < 20; rep++) {
+			tokens.clear();
+			var buf = TextCharsParser.of(src);
+			long startBytes = allocMx.getThreadAllocatedBytes(threadId);
+			while(buf.hasNext()) {
+				parser.parse(buf.nextChar(), buf);
+			}
+			long bytes = allocMx.getThreadAllocatedBytes(threadId) - startBytes;
+			minBytesPerToken = Math.min(minBytesPerToken, bytes / (double)tokens.size());
+		}
+		Assert.assertEquals(0, parser.getCompoundParserDepth());
+		Assert.assertEquals(2000 * 11, tokens.size());
+		Assert.assertTrue("allocated " + minBytesPerToken + " bytes/token", minBytesPerToken < 1);
+	}
+
+
+	/** Tokenize literal factories which list strings before shorter strings which are their prefixes
+	 * @return each token's factory index and text
+	 */
+	static List<String> tokenizeLongestFirst(String src, boolean compileLiterals, boolean advanceTogether) {
+		var factories = List.<CharParserFactory>of(
+			new StringParserBuilder("operator").addStringLiteralMarker("operator", "==", "=", "+=", "+").build(true),
+			new StringParserBuilder("arrow").addStringLiteralMarker("arrow", "=>>", "=>").build(true),
+			// several parsers, the factory completes when any of them completes
+			new StringParserBuilder("compare").addStringLiteralMarker("compare", "<==", "<=").addCharLiteralMarker("compare", '<').build(true),
+			new StringParserBuilder("shift").addStringLiteralMarker("shift", "<<<", "<<").build(true),
+			new StringParserBuilder("identifier").addConditionMatcher(CharConditions.Identifier.newInstance("identifier", false)).build(true)
+		);
+		var tokens = new TokenBuffer();
+		var parser = new CharMultiConditionParser(null, compileLiterals, tokens, factories);
+		parser.setAdvanceParsersTogether(advanceTogether);
+		var buf = TextCharsParser.of(src);
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+		}
+		var res = new ArrayList<String>();
+		for(int i = 0, size = tokens.size(); i < size; i++) {
+			int off = tokens.getOffsets()[i];
+			res.add(tokens.getFactoryIndices()[i] + " '" + src.substring(off, off + tokens.getLengths()[i]) + "'");
+		}
+		return res;
+	}
+
+
+	/** Tokenize {@link ParserTestUtils#createFactories(boolean)} plus a whitespace factory
+	 * @return each token's factory index, offset, length, and start/end line and column
+	 */
+	static List<String> tokenizeRuns(TextParser buf, boolean scanRuns) {
+		var factories = new ArrayList<>(ParserTestUtils.createFactories(true));
+		factories.add(new StringParserBuilder("whitespace").addCharMatcher("whitespace", new char[] { ' ', '\t', '\n', '\r' }).build(true));
+		var tokens = new TokenBuffer();
+		var parser = new CharMultiConditionParser(null, false, tokens, factories);
+		parser.setScanCharRuns(scanRuns);
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+		}
+		var res = new ArrayList<String>();
+		for(int i = 0, size = tokens.size(); i < size; i++) {
+			res.add(tokens.getFactoryIndices()[i] + " " + tokens.getOffsets()[i] + "+" + tokens.getLengths()[i] + " " +
+					tokens.getLineStarts()[i] + ":" + tokens.getColumnStarts()[i] + "-" + tokens.getLineEnds()[i] + ":" + tokens.getColumnEnds()[i]);
+		}
+		return res;
+	}
+
+
+	/** Tokenize using a {@link TokenBuffer} and {@link ParserTestUtils#createConsumers(String, List)}
+	 * @param maxDepth optional, the maximum {@link CharMultiConditionParser#getCompoundParserDepth()} is stored at index 0
+	 */
+	static List<String> tokenize(String src, List<CharParserFactory> factories, boolean skipAhead, int[] maxDepth) {
+		var tokens = new TokenBuffer();
+		var parser = new CharMultiConditionParser(null, false, tokens, factories);
+		parser.setSkipAheadCompoundParsers(skipAhead);
+		var buf = TextCharsParser.of(src);
+		int depth = 0;
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+			depth = Math.max(depth, parser.getCompoundParserDepth());
+		}
+		if(maxDepth != null) {
+			maxDepth[0] = depth;
+		}
+		var res = new ArrayList<String>();
+		tokens.replay(0, ParserTestUtils.createConsumers(src, res).toArray(new TextFragmentConsumer[0]));
+		return res;
+	}
+
+
+	static TokenizationLogger countAcceptNext(int[] dst, int dstIdx) {
+		return new TokenizationLogger() {
+			@Override public void logCountCompoundCharParserMatch(int count) { }
+			@Override public void logCountCompoundCharParserAcceptNext(int count) { dst[dstIdx] += count; }
+			@Override public void logCountCreateParser(int count) { }
+			@Override public void logCountTextFragmentsConsumed(int count) { }
+		};
+	}
+
+
+
+
+	/** A compound '(' ... ')' parser which doesn't allocate once created
+	 */
+	static class ParenParser implements CharParser {
+		private final TextFragmentRefImplMut coords = new TextFragmentRefImplMut();
+		private boolean started;
+		private boolean complete;
+
+
+		@Override
+		public boolean acceptNext(char ch, TextParser buf) {
+			if(!started) {
+				started = true;
+				coords.setStart(buf);
+			}
+			else if(ch == ')') {
+				complete = true;
+				coords.setEnd(buf);
+			}
+			return true;
+		}
+
+
+		@Override public String name() { return "()"; }
+		@Override public boolean isComplete() { return complete; }
+		@Override public boolean isFailed() { return false; }
+		@Override public TextFragmentRef getMatchedTextCoords() { return coords; }
+		@Override public boolean canRecycle() { return true; }
+		@Override public ParenParser copy() { return new ParenParser(); }
+
+
+		@Override
+		public ParenParser recycle() {
+			started = false;
+			complete = false;
+			return this;
+		}
+
+
+
+
+		static class Factory implements CharParserFactory {
+			private final ParenParser[] pool = new ParenParser[64];
+			private int poolSize;
+
+			@Override public boolean isCompound() { return true; }
+			@Override public boolean isMatch(char ch, TextParser buf) { return ch == '('; }
+			@Override public char[] getFirstChars() { return new char[] { '(' }; }
+			@Override public CharParser createParser() { return poolSize > 0 ? pool[--poolSize] : new ParenParser(); }
+			@Override public void returnParser(CharParser parser) { pool[poolSize++] = ((ParenParser)parser).recycle(); }
+		}
+
+	}
+
+}
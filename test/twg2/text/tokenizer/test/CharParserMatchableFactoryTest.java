@@ -0,0 +1,272 @@
+package twg2.text.tokenizer.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.condition.text.CharParser;
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.parser.textParser.TextCharsParser;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.CharParserFactory;
+import twg2.text.tokenizer.CharParserMatchableFactory;
+import twg2.text.tokenizer.ParserPoolPolicy;
+import twg2.text.tokenizer.StringParserBuilder;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharParserMatchableFactoryTest {
+
+	@Test
+	public void concurrentFactoriesSharedByThreads() throws Exception {
+		var factories = ParserTestUtils.createFactories(StringParserBuilder::buildConcurrent);
+		var srcs = new ArrayList<String>();
+		var expect = new ArrayList<List<String>>();
+		for(int i = 0; i < 8; i++) {
+			var src = ParserTestUtils.createSource(new Random(i + 100), 150);
+			srcs.add(src);
+			expect.add(ParserTestUtils.tokenize(src, false, false, false));
+		}
+
+		var executor = Executors.newFixedThreadPool(8);
+		try {
+			var tasks = new ArrayList<Callable<List<String>>>();
+			for(int rep = 0; rep < 8; rep++) {
+				for(var src : srcs) {
+					tasks.add(() -> tokenize(factories, src));
+				}
+			}
+			var results = executor.invokeAll(tasks);
+			for(int i = 0; i < results.size(); i++) {
+				Assert.assertEquals(expect.get(i % srcs.size()), results.get(i).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// parsers are recycled and the counts from every thread are included
+		int reused = 0;
+		for(var factory : factories) {
+			reused += ((CharParserMatchableFactory.Concurrent<?>)factory).getReuseCount();
+		}
+		Assert.assertTrue("reused " + reused, reused > 1000);
+	}
+
+
+	@Test
+	public void concurrentMagazineBoundary() throws Exception {
+		var factory = (CharParserMatchableFactory.Concurrent<?>)new StringParserBuilder("number").addCharMatcher("number", new char[] { '0', '1' }).buildConcurrent();
+		var parsers = new ArrayList<CharParser>();
+		for(int i = 0; i < 33; i++) {
+			parsers.add(factory.createParser());
+		}
+		// fill one magazine, then alternate returning and creating one parser across the magazine boundary
+		for(int i = 0; i < 32; i++) {
+			factory.returnParser(parsers.get(i));
+		}
+		var parser = parsers.get(32);
+		for(int i = 0; i < 100; i++) {
+			factory.returnParser(parser);
+			parser = factory.createParser();
+		}
+		// the thread's two magazines absorb the pattern without using the shared depot or creating parsers
+		Assert.assertEquals(0, factory.getPoolPeekSize());
+		Assert.assertEquals(33, factory.getCreateCount());
+		Assert.assertTrue(factory.getReuseCount() >= 100);
+
+		var threadMx = ManagementFactory.getThreadMXBean();
+		if(threadMx instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)threadMx).isThreadAllocatedMemoryEnabled()) {
+			var allocMx = (com.sun.management.ThreadMXBean)threadMx;
+			long threadId = Thread.currentThread().getId();
+			long minBytes = Long.MAX_VALUE;
+			long minRecycleBytes = Long.MAX_VALUE;
+			// keep the lowest measurement to ignore one-off allocations (i.e. JIT compilation)
+			for(int rep = 0; rep < 10; rep++) {
+				long startBytes = allocMx.getThreadAllocatedBytes(threadId);
+				for(int i = 0; i < 10000; i++) {
+					factory.returnParser(parser);
+					parser = factory.createParser();
+				}
+				minBytes = Math.min(minBytes, allocMx.getThreadAllocatedBytes(threadId) - startBytes);
+
+				// the parsers themselves may allocate when recycled, that isn't counted against the pool
+				startBytes = allocMx.getThreadAllocatedBytes(threadId);
+				for(int i = 0; i < 10000; i++) {
+					parser = parser.recycle();
+				}
+				minRecycleBytes = Math.min(minRecycleBytes, allocMx.getThreadAllocatedBytes(threadId) - startBytes);
+			}
+			Assert.assertTrue("allocated " + minBytes + " bytes, recycling allocated " + minRecycleBytes, minBytes - minRecycleBytes < 1000);
+		}
+
+		// once both magazines are full, magazines move through the depot, which holds a fixed number of magazines
+		for(int i = 0; i < 32 * 70; i++) {
+			factory.returnParser(factory.createUnpooledParser());
+		}
+		var stats = factory.getPoolStats();
+		Assert.assertEquals(stats.getMaxIdle(), stats.getIdle());
+		Assert.assertEquals(stats.getMaxIdle(), factory.getPoolPeekSize());
+		Assert.assertTrue(stats.getRecycleRejected() > 0);
+	}
+
+
+	@Test
+	public void multiParserFilter() {
+		// one and several words of live alternatives
+		for(int cnt : new int[] { 3, 64, 70, 130 }) {
+			var builder = new StringParserBuilder("keywords " + cnt);
+			for(int i = 0; i < cnt; i++) {
+				builder.addStringLiteralMarker("keyword " + i, "a" + i + ";");
+			}
+			var parser = builder.build(true).createParser();
+			var name = "filter " + cnt;
+
+			ParserTestUtils.parseTest(false, true, name, parser, "b0;");
+			ParserTestUtils.parseTest(false, true, name, parser, "a" + cnt + ";");
+			ParserTestUtils.parseTest(false, false, name, parser, "a" + (cnt - 1));
+
+			ParserTestUtils.parseTest(true, false, name, parser, "a0;");
+			ParserTestUtils.parseTest(true, false, name, parser, "a" + (cnt - 1) + ";");
+			ParserTestUtils.parseTest(true, false, name, parser, "a" + (cnt / 2) + ";");
+		}
+
+		// the filter completes as soon as any of its parsers completes, even if another parser is part way through a longer match
+		var parser = new StringParserBuilder("compare").addStringLiteralMarker("compare", "==").addCharLiteralMarker("compare", '=').build(true).createParser();
+		ParserTestUtils.parseTest(true, false, "compare", parser, "=");
+		ParserTestUtils.parseTest(true, false, "compare", parser, "==");
+	}
+
+
+	@Test
+	public void fixedPoolPolicy() {
+		var factory = createReusable();
+		factory.setPoolPolicy(ParserPoolPolicy.fixed(2));
+		var parsers = new ArrayList<CharParser>();
+		for(int i = 0; i < 5; i++) {
+			parsers.add(factory.createParser());
+		}
+		parsers.forEach(factory::returnParser);
+		for(int i = 0; i < 3; i++) {
+			factory.returnParser(factory.createParser());
+		}
+
+		var stats = factory.getPoolStats();
+		Assert.assertEquals(3, stats.getHits());
+		Assert.assertEquals(5, stats.getMisses());
+		Assert.assertEquals(5, stats.getRecycled());
+		Assert.assertEquals(3, stats.getRecycleRejected());
+		Assert.assertEquals(2, stats.getIdle());
+		Assert.assertEquals(5, stats.getPeakInUse());
+	}
+
+
+	@Test
+	public void adaptivePoolPolicy() {
+		var factory = createReusable();
+		factory.setPoolPolicy(ParserPoolPolicy.adaptive(1, 50, 12));
+		Assert.assertEquals(1, factory.getPoolStats().getMaxIdle());
+
+		// 3 parsers in use at a time grows the pool to 3
+		useParsers(factory, 3, 10);
+		Assert.assertEquals(3, factory.getPoolStats().getMaxIdle());
+		Assert.assertEquals(3, factory.getPoolStats().getIdle());
+
+		// then shrinks back once the peak drops
+		useParsers(factory, 1, 30);
+		Assert.assertEquals(1, factory.getPoolStats().getMaxIdle());
+		Assert.assertEquals(1, factory.getPoolStats().getIdle());
+		Assert.assertTrue(factory.getPoolStats().getTrimmed() >= 2);
+	}
+
+
+	@Test
+	public void shrinkWhenIdlePoolPolicy() {
+		var time = new long[1];
+		var factory = createReusable();
+		factory.setPoolPolicy(ParserPoolPolicy.shrinkWhenIdle(20, 4, 1_000_000, () -> time[0]));
+		useParsers(factory, 4, 4);
+		Assert.assertEquals(20, factory.getPoolStats().getMaxIdle());
+		Assert.assertEquals(4, factory.getPoolStats().getIdle());
+
+		// a slow window shrinks the pool to the window's peak usage (the first slow window still includes the parsers in use when it started)
+		for(int i = 0; i < 8; i++) {
+			time[0] += 2_000_000;
+			factory.returnParser(factory.createParser());
+		}
+		Assert.assertEquals(1, factory.getPoolStats().getMaxIdle());
+		Assert.assertEquals(1, factory.getPoolStats().getIdle());
+	}
+
+
+	@Test
+	public void trimIdlePool() {
+		var time = new long[1];
+		var factory = createReusable();
+		factory.setPoolPolicy(ParserPoolPolicy.shrinkWhenIdle(20, 4, 1_000_000, () -> time[0]));
+		useParsers(factory, 4, 1);
+		Assert.assertEquals(4, factory.getPoolStats().getIdle());
+
+		// the factory was used since the policy was set, so it isn't idle yet
+		factory.trimIdle();
+		Assert.assertEquals(4, factory.getPoolStats().getIdle());
+		// idle, but not for long enough
+		time[0] += 1_000_000;
+		factory.trimIdle();
+		Assert.assertEquals(4, factory.getPoolStats().getIdle());
+		time[0] += 1;
+		factory.trimIdle();
+		Assert.assertEquals(0, factory.getPoolStats().getMaxIdle());
+		Assert.assertEquals(0, factory.getPoolStats().getIdle());
+
+		// busy again, the idle time before the next window isn't part of the window, so the pool grows back
+		time[0] += 5_000_000;
+		useParsers(factory, 4, 2);
+		Assert.assertEquals(20, factory.getPoolStats().getMaxIdle());
+	}
+
+
+	/** Create and return {@code concurrent} parsers at a time, {@code rounds} times
+	 */
+	private static void useParsers(CharParserMatchableFactory.Reusable<?> factory, int concurrent, int rounds) {
+		var parsers = new ArrayList<CharParser>();
+		for(int r = 0; r < rounds; r++) {
+			for(int i = 0; i < concurrent; i++) {
+				parsers.add(factory.createParser());
+			}
+			parsers.forEach(factory::returnParser);
+			parsers.clear();
+		}
+	}
+
+
+	private static CharParserMatchableFactory.Reusable<?> createReusable() {
+		return (CharParserMatchableFactory.Reusable<?>)new StringParserBuilder("operator").addStringLiteralMarker("operator", "=", "==").build(true);
+	}
+
+
+	private static List<String> tokenize(List<CharParserFactory> factories, String src) {
+		var tokens = new ArrayList<String>();
+		var consumers = ParserTestUtils.createConsumers(src, tokens);
+		var conds = new ArrayList<Entry<CharParserFactory, TextFragmentConsumer>>();
+		for(int i = 0; i < factories.size(); i++) {
+			conds.add(new AbstractMap.SimpleImmutableEntry<>(factories.get(i), consumers.get(i)));
+		}
+		var parser = new CharMultiConditionParser(null, conds);
+		var buf = TextCharsParser.of(src);
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+		}
+		return tokens;
+	}
+
+}
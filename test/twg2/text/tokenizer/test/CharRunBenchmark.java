@@ -0,0 +1,82 @@
+package twg2.text.tokenizer.test;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.CharParserFactory;
+import twg2.text.tokenizer.MappedFileText;
+import twg2.text.tokenizer.OffsetsOnlyTextParser;
+import twg2.text.tokenizer.ReaderTextParser;
+import twg2.text.tokenizer.StringParserBuilder;
+import twg2.text.tokenizer.TokenBuffer;
+
+/** Measures {@link CharMultiConditionParser#setScanCharRuns(boolean)} on a minified input (long identifiers and numbers, no whitespace)
+ * and a whitespace heavy input (deep indentation and padded operators) read from a {@code String}, Latin-1 bytes, and a {@code Reader}.
+ * Run with: {@code java twg2.text.tokenizer.test.CharRunBenchmark [statements]}
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharRunBenchmark {
+
+	public static void main(String[] args) {
+		int statements = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		int rounds = 5;
+		var base = ParserTestUtils.createSource(new Random(1), statements).replaceAll("// [^\n]*", "");
+		var minified = base.replace(" ", "").replace("\n", ";").replace("var", "variableWithALongName.member").replace("12", "1234567890123");
+		var whitespace = base.replace(" ", "    \t ").replace("\n", "\n\t\t                ");
+
+		var factories = new ArrayList<>(ParserTestUtils.createFactories(true));
+		factories.add(new StringParserBuilder("whitespace").addCharMatcher("whitespace", new char[] { ' ', '\t', '\n', '\r' }).build(true));
+
+		for(var input : new String[][] { { "minified", minified }, { "whitespace", whitespace } }) {
+			var src = input[1];
+			double mb = src.length() / (1024.0 * 1024.0);
+			var bytes = new MappedFileText.ByteCharSequence(ByteBuffer.wrap(src.getBytes(StandardCharsets.ISO_8859_1)));
+			System.out.printf("%s: %.1f MB chars%n", input[0], mb);
+			run("  String", mb, rounds, factories, () -> new OffsetsOnlyTextParser(src));
+			run("  Latin-1", mb, rounds, factories, () -> new OffsetsOnlyTextParser(bytes));
+			run("  Reader", mb, rounds, factories, () -> ReaderTextParser.of(new StringReader(src)));
+		}
+	}
+
+
+	private static void run(String name, double mb, int rounds, ArrayList<CharParserFactory> factories, Supplier<TextParser> input) {
+		long perChar = bestOf(rounds, () -> tokenize(factories, input.get(), false));
+		long runs = bestOf(rounds, () -> tokenize(factories, input.get(), true));
+		System.out.printf("%-10s per char: %8.1f MB/s   scan runs: %8.1f MB/s  (%.2fx)%n", name, mb / (perChar / 1e9), mb / (runs / 1e9), perChar / (double)runs);
+	}
+
+
+	private static int tokenize(ArrayList<CharParserFactory> factories, TextParser buf, boolean scanRuns) {
+		var tokens = new TokenBuffer(1024);
+		var parser = new CharMultiConditionParser(null, false, tokens, factories);
+		// the random source nests blocks deeply, skip ahead so the cost per char doesn't depend on the depth
+		parser.setSkipAheadCompoundParsers(true);
+		parser.setScanCharRuns(scanRuns);
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+			if(tokens.size() > 512) {
+				tokens.clear();
+			}
+		}
+		return tokens.size();
+	}
+
+
+	private static long bestOf(int rounds, Runnable task) {
+		long best = Long.MAX_VALUE;
+		for(int i = 0; i < rounds; i++) {
+			long start = System.nanoTime();
+			task.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+}
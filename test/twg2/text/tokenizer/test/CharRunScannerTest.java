@@ -0,0 +1,59 @@
+package twg2.text.tokenizer.test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.text.tokenizer.CharClass;
+import twg2.text.tokenizer.CharRunScanner;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class CharRunScannerTest {
+
+	@Test
+	public void scanMatchesScalarLookup() {
+		var classes = List.of(
+			CharClass.of(' ', '\t', '\n', '\r'),
+			CharClass.range('0', '9'),
+			CharClass.builder().addRange('a', 'z').addRange('A', 'Z').addRange('0', '9').addChars('_', '$').build(),
+			CharClass.builder().addChar((char)0).addChar((char)127).addRange((char)0xC0, (char)0xFF).build(),
+			// more ASCII ranges than the eight byte at a time scan handles
+			CharClass.of('a', 'c', 'e', 'g', 'i', 'k', 'm', 'o', 'q', 's')
+		);
+		var rand = new Random(1);
+		for(var chars : classes) {
+			for(int n = 0; n < 300; n++) {
+				// mostly runs of matching chars of varying lengths with some non-ASCII bytes
+				var bytes = new byte[rand.nextInt(40)];
+				for(int i = 0; i < bytes.length; i++) {
+					char ch;
+					do {
+						ch = (char)(rand.nextInt(10) == 0 ? rand.nextInt(256) : rand.nextInt(128));
+					} while(rand.nextInt(8) != 0 && !chars.contains(ch));
+					bytes[i] = (byte)ch;
+				}
+				int off = bytes.length > 0 ? rand.nextInt(bytes.length) : 0;
+
+				int expect = off;
+				while(expect < bytes.length && chars.contains((char)(bytes[expect] & 0xFF))) {
+					expect++;
+				}
+				var str = new String(bytes, StandardCharsets.ISO_8859_1);
+				Assert.assertEquals(chars + " " + str, expect, CharRunScanner.scan(str, off, bytes.length, chars));
+				Assert.assertEquals(chars + " " + str, expect, CharRunScanner.scan(str.toCharArray(), off, bytes.length, chars));
+				for(var order : List.of(ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN)) {
+					Assert.assertEquals(chars + " " + str, expect, CharRunScanner.scan(ByteBuffer.wrap(bytes).order(order), off, bytes.length, chars));
+				}
+			}
+		}
+	}
+
+}
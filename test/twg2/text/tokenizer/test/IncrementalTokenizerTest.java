@@ -0,0 +1,72 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.text.tokenizer.IncrementalTokenizer;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class IncrementalTokenizerTest {
+
+	@Test
+	public void editsMatchFullTokenization() {
+		var rand = new Random(5);
+		var src = ParserTestUtils.createSource(rand, 300);
+		var tokenizer = new IncrementalTokenizer(false, ParserTestUtils.createFactories(true));
+		tokenizer.tokenize(src);
+		Assert.assertEquals(ParserTestUtils.tokenize(src, false, true, false), tokens(tokenizer));
+
+		var pieces = new String[] { "a", "12", " ", "\n", "\"", "{", "}", "(", ")", "//", "=", "+=", "/", ":", "x \"y\"\n" };
+		for(int i = 0; i < 300; i++) {
+			var text = tokenizer.getText();
+			int offset = rand.nextInt(text.length() + 1);
+			int removed = Math.min(rand.nextInt(4), text.length() - offset);
+			var inserted = rand.nextInt(4) == 0 ? "" : pieces[rand.nextInt(pieces.length)];
+			var expectText = text.substring(0, offset) + inserted + text.substring(offset + removed);
+
+			List<String> expect;
+			try {
+				expect = ParserTestUtils.tokenize(expectText, false, true, false);
+			} catch(RuntimeException ex) {
+				// the random edit produced text which the grammar can't parse (i.e. a mismatched closing bracket), undo it
+				continue;
+			}
+			var change = tokenizer.edit(offset, removed, inserted);
+			Assert.assertEquals(expectText, tokenizer.getText());
+			Assert.assertEquals("edit " + i + " " + change, expect, tokens(tokenizer));
+		}
+	}
+
+
+	@Test
+	public void editOnlyRetokenizesNearbyTokens() {
+		// restart points only exist outside of compound tokens, so use a source without top level blocks
+		var src = "var a = 12;\nb: (c + 3) // note {\n\"str { \\\" ( \" == d/=e\n".repeat(200);
+		var tokenizer = new IncrementalTokenizer(false, ParserTestUtils.createFactories(true));
+		int tokenCount = tokenizer.tokenize(src).size();
+
+		int offset = src.indexOf("var a = 12;", src.length() / 2) + 8;
+		var change = tokenizer.edit(offset, 2, "345");
+		Assert.assertEquals(ParserTestUtils.tokenize(tokenizer.getText(), false, true, false), tokens(tokenizer));
+		Assert.assertEquals(tokenCount, tokenizer.getTokens().size());
+		Assert.assertTrue(change.toString(), change.oldEnd - change.start < 10);
+		Assert.assertEquals(change.oldEnd, change.newEnd);
+	}
+
+
+	private static List<String> tokens(IncrementalTokenizer tokenizer) {
+		var res = new ArrayList<String>();
+		var consumers = ParserTestUtils.createConsumers(tokenizer.getText(), res);
+		tokenizer.getTokens().replay(0, consumers.toArray(new TextFragmentConsumer[0]));
+		return res;
+	}
+
+}
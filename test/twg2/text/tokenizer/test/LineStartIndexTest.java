@@ -0,0 +1,108 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.parser.textParser.TextCharsParser;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.IndexedTextParser;
+import twg2.text.tokenizer.LineStartIndex;
+import twg2.text.tokenizer.OffsetsOnlyTextParser;
+import twg2.text.tokenizer.TokenBuffer;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class LineStartIndexTest {
+
+	@Test
+	public void lineAndColumnNumbers() {
+		var src = "ab\n\ncde\nf";
+		var idx = LineStartIndex.of(src);
+		var buf = TextCharsParser.of(src);
+		Assert.assertEquals(4, idx.getLineCount());
+		Assert.assertEquals(4, idx.getLineStart(3));
+		while(buf.hasNext()) {
+			buf.nextChar();
+			int off = buf.getPosition();
+			Assert.assertEquals("line at " + off, buf.getLineNumber(), idx.getLineNumber(off));
+			Assert.assertEquals("column at " + off, buf.getColumnNumber(), idx.getColumnNumber(off));
+		}
+	}
+
+
+	@Test
+	public void indexedParserFromAnyOffset() {
+		var src = "ab\n\ncde\nf\n";
+		var idx = LineStartIndex.of(src);
+		for(int start = 0; start <= src.length(); start++) {
+			var expect = TextCharsParser.of(src);
+			for(int i = 0; i < start; i++) {
+				expect.nextChar();
+			}
+			var buf = new IndexedTextParser(src, idx, start);
+			while(buf.hasNext()) {
+				Assert.assertEquals(expect.nextChar(), buf.nextChar());
+				Assert.assertEquals("line at " + buf.getPosition(), expect.getLineNumber(), buf.getLineNumber());
+				Assert.assertEquals("column at " + buf.getPosition(), expect.getColumnNumber(), buf.getColumnNumber());
+			}
+			// unreading back across lines
+			int back = Math.min(start + 1, 5);
+			if(back <= buf.getPosition() + 1) {
+				expect.unread(back);
+				buf.unread(back);
+				Assert.assertEquals(expect.getLineNumber(), buf.getLineNumber());
+				Assert.assertEquals(expect.getColumnNumber(), buf.getColumnNumber());
+			}
+		}
+	}
+
+
+	@Test
+	public void editMatchesNewIndex() {
+		var rand = new Random(3);
+		var pieces = new String[] { "", "a", "\n", "b\nc", "\n\n", "de" };
+		var text = "ab\n\ncde\nf";
+		var idx = LineStartIndex.of(text);
+		for(int i = 0; i < 500; i++) {
+			int offset = rand.nextInt(text.length() + 1);
+			int removed = Math.min(rand.nextInt(4), text.length() - offset);
+			var inserted = pieces[rand.nextInt(pieces.length)];
+			text = text.substring(0, offset) + inserted + text.substring(offset + removed);
+			idx.edit(offset, removed, inserted);
+
+			var expect = LineStartIndex.of(text);
+			Assert.assertEquals(text, expect.getLineCount(), idx.getLineCount());
+			for(int line = 1; line <= expect.getLineCount(); line++) {
+				Assert.assertEquals(text, expect.getLineStart(line), idx.getLineStart(line));
+			}
+		}
+	}
+
+
+	@Test
+	public void offsetsOnlyTokenization() {
+		var src = ParserTestUtils.createSource(new Random(11), 200);
+		var expect = ParserTestUtils.tokenize(src, false, true, false);
+
+		var tokens = new TokenBuffer();
+		var parser = new CharMultiConditionParser(null, false, tokens, ParserTestUtils.createFactories(true));
+		var buf = new OffsetsOnlyTextParser(src);
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			parser.parse(ch, buf);
+		}
+		Assert.assertEquals(0, tokens.getLineStarts()[0]);
+
+		LineStartIndex.of(src).resolve(tokens, 0);
+		var res = new ArrayList<String>();
+		tokens.replay(0, ParserTestUtils.createConsumers(src, res).toArray(new TextFragmentConsumer[0]));
+		Assert.assertEquals(expect, res);
+	}
+
+}
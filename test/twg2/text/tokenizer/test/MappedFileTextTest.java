@@ -0,0 +1,96 @@
+package twg2.text.tokenizer.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.textParser.TextCharsParser;
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.MappedFileText;
+import twg2.text.tokenizer.ReaderTextParser;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class MappedFileTextTest {
+
+	@Test
+	public void asciiFileIsTokenizedFromMappedBuffer() throws IOException {
+		var src = ParserTestUtils.createSource(new Random(3), 200);
+		var file = Files.createTempFile("mapped-ascii", ".txt");
+		try {
+			Files.writeString(file, src, StandardCharsets.UTF_8);
+			var buf = MappedFileText.open(file, StandardCharsets.UTF_8);
+			Assert.assertTrue(buf instanceof TextCharsParser);
+			Assert.assertEquals(ParserTestUtils.tokenize(src, false, true, false), tokenize(src, buf));
+
+			// token offsets slice the mapped region directly
+			var text = MappedFileText.map(file);
+			int off = src.indexOf("\"str");
+			var slice = text.slice(off, 4);
+			var bytes = new byte[slice.remaining()];
+			slice.get(bytes);
+			Assert.assertEquals("\"str", new String(bytes, StandardCharsets.US_ASCII));
+		} finally {
+			deleteTempFile(file);
+		}
+	}
+
+
+	@Test
+	public void nonAsciiFileIsDecoded() throws IOException {
+		var src = "a = \"\u00e9t\u00e9 \u4e2d\"\n// \u00fc\nb == 12\n";
+		var file = Files.createTempFile("mapped-utf8", ".txt");
+		try {
+			Files.writeString(file, src, StandardCharsets.UTF_8);
+			var buf = MappedFileText.open(file, StandardCharsets.UTF_8);
+			Assert.assertTrue(buf instanceof ReaderTextParser);
+			Assert.assertEquals(ParserTestUtils.tokenize(src, false, true, false), tokenize(src, buf));
+
+		} finally {
+			deleteTempFile(file);
+		}
+
+		// Latin-1 is always one char per byte, use a new file since a mapped file can't be rewritten on some platforms (i.e. Windows)
+		var latin1File = Files.createTempFile("mapped-latin1", ".txt");
+		try {
+			Files.writeString(latin1File, "\u00e9 = 1\n", StandardCharsets.ISO_8859_1);
+			Assert.assertTrue(MappedFileText.open(latin1File, StandardCharsets.ISO_8859_1) instanceof TextCharsParser);
+		} finally {
+			deleteTempFile(latin1File);
+		}
+	}
+
+
+	/** Delete a temp file, or delete it when the JVM exits if it can't be deleted yet,
+	 * a mapped file can't be deleted on some platforms (i.e. Windows) until its buffer is garbage collected
+	 */
+	private static void deleteTempFile(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch(IOException ioe) {
+			file.toFile().deleteOnExit();
+		}
+	}
+
+
+	private static List<String> tokenize(String src, TextParser buf) {
+		var tokens = new ArrayList<String>();
+		var parser = new CharMultiConditionParser(null, ParserTestUtils.createConditions(src, tokens, false, true));
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			parser.parse(ch, buf);
+		}
+		return tokens;
+	}
+
+}
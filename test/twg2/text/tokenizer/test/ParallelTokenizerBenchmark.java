@@ -0,0 +1,93 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import twg2.parser.textFragment.TextFragmentConsumer;
+import twg2.parser.textParser.TextCharsParser;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.CharParserFactory;
+import twg2.text.tokenizer.ParallelTokenizer;
+
+/** Measures {@link ParallelTokenizer} throughput with increasing thread counts compared to a sequential {@link CharMultiConditionParser},
+ * then with documents of increasing size (up to {@code scaleFactor} times larger), the throughput should not drop as the document grows.
+ * Run with: {@code java twg2.text.tokenizer.test.ParallelTokenizerBenchmark [statements] [chunkSize] [scaleFactor]}
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ParallelTokenizerBenchmark {
+
+	public static void main(String[] args) {
+		int statements = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+		int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : 256 * 1024;
+		int scaleFactor = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+		int rounds = 5;
+		var src = ParserTestUtils.createSource(new Random(1), statements);
+		double mb = src.length() / (1024.0 * 1024.0);
+		System.out.printf("input: %.1f MB chars, chunk size: %d%n", mb, chunkSize);
+
+		long seqNanos = bestOf(rounds, () -> parseSequential(src));
+		System.out.printf("sequential:  %8.1f MB/s%n", mb / (seqNanos / 1e9));
+
+		int maxThreads = Runtime.getRuntime().availableProcessors();
+		for(int threads = 1; threads <= maxThreads; threads *= 2) {
+			var pool = new ForkJoinPool(threads);
+			var tokenizer = createTokenizer(pool, chunkSize);
+			long nanos = bestOf(rounds, () -> tokenizer.parse(src));
+			pool.shutdown();
+			System.out.printf("%2d threads:  %8.1f MB/s  (%.2fx sequential)%n", threads, mb / (nanos / 1e9), seqNanos / (double)nanos);
+		}
+
+		// each chunk's cost should only depend on the chunk's size, not its offset in the document
+		var pool = new ForkJoinPool(maxThreads);
+		var tokenizer = createTokenizer(pool, chunkSize);
+		System.out.printf("document size scaling, %d threads:%n", maxThreads);
+		for(int scale = 1; scale <= scaleFactor; scale *= 2) {
+			var largeSrc = ParserTestUtils.createSource(new Random(1), statements * scale);
+			double largeMb = largeSrc.length() / (1024.0 * 1024.0);
+			long nanos = bestOf(Math.max(rounds / scale, 1), () -> tokenizer.parse(largeSrc));
+			System.out.printf("  %7.1f MB:  %8.1f MB/s%n", largeMb, largeMb / (nanos / 1e9));
+		}
+		pool.shutdown();
+	}
+
+
+	private static void parseSequential(String src) {
+		var counter = new int[1];
+		var conds = new ArrayList<Map.Entry<CharParserFactory, TextFragmentConsumer>>();
+		for(var factory : ParserTestUtils.createFactories(true)) {
+			conds.add(Map.entry(factory, (off, len, lineStart, colStart, lineEnd, colEnd) -> counter[0]++));
+		}
+		var parser = new CharMultiConditionParser(null, conds);
+		// the same as each ParallelTokenizer chunk
+		parser.setSkipAheadCompoundParsers(true);
+		var buf = TextCharsParser.of(src);
+		while(buf.hasNext()) {
+			parser.parse(buf.nextChar(), buf);
+		}
+	}
+
+
+	private static ParallelTokenizer createTokenizer(ForkJoinPool pool, int chunkSize) {
+		var counters = new ArrayList<TextFragmentConsumer>();
+		var counter = new int[1];
+		for(int i = 0, size = ParserTestUtils.createFactories(false).size(); i < size; i++) {
+			counters.add((off, len, lineStart, colStart, lineEnd, colEnd) -> counter[0]++);
+		}
+		return new ParallelTokenizer(pool, chunkSize, () -> ParserTestUtils.createFactories(true), counters);
+	}
+
+
+	private static long bestOf(int rounds, Runnable task) {
+		long best = Long.MAX_VALUE;
+		for(int i = 0; i < rounds; i++) {
+			long start = System.nanoTime();
+			task.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best;
+	}
+
+}
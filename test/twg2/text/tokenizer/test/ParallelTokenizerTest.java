@@ -0,0 +1,42 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.text.tokenizer.ParallelTokenizer;
+import twg2.text.tokenizer.TokenizerSpec;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ParallelTokenizerTest {
+
+	@Test
+	public void parallelMatchesSequential() {
+		var src = ParserTestUtils.createSource(new Random(17), 300);
+		var expect = ParserTestUtils.tokenize(src, false, true, false);
+		var pool = new ForkJoinPool(4);
+		var spec = new TokenizerSpec(false, ParserTestUtils.createFactories(true));
+		try {
+			for(int chunkSize : new int[] { 1, 3, 16, 100, 1000, src.length() + 1 }) {
+				var tokens = new ArrayList<String>();
+				var tokenizer = new ParallelTokenizer(pool, chunkSize, () -> ParserTestUtils.createFactories(true), ParserTestUtils.createConsumers(src, tokens));
+				tokenizer.parse(src);
+				Assert.assertEquals("chunkSize=" + chunkSize, expect, tokens);
+
+				tokens.clear();
+				var specTokenizer = new ParallelTokenizer(pool, chunkSize, spec, ParserTestUtils.createConsumers(src, tokens));
+				specTokenizer.parse(src);
+				Assert.assertEquals("spec chunkSize=" + chunkSize, expect, tokens);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -1,16 +1,58 @@
 package twg2.text.tokenizer.test;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.function.Function;
+
 import org.junit.Assert;
 
 import twg2.parser.condition.text.CharParser;
+import twg2.parser.textFragment.TextFragmentConsumer;
 import twg2.parser.textParser.TextCharsParser;
 import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharConditions;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.CharParserFactory;
+import twg2.text.tokenizer.Inclusion;
+import twg2.text.tokenizer.StringParserBuilder;
+import twg2.text.tokenizer.analytics.TokenizationLogger;
 
 /**
  * @author TeamworkGuy2
  * @since 2015-11-28
  */
 public interface ParserTestUtils {
+	/** a small source for the {@link #createFactories(boolean)} grammar, see {@link #SAMPLE_TOKENS} */
+	public static final String SAMPLE_SRC = "var a = {\n" +
+			"  b: (c + 12) // note\n" +
+			"  \"d \\\" e\" == f/=g\n" +
+			"}";
+
+	/** the tokens in {@link #SAMPLE_SRC}, as created by {@link #createConsumers(String, List)} */
+	public static final List<String> SAMPLE_TOKENS = List.of(
+		"identifier 'var' 1:1",
+		"identifier 'a' 1:5",
+		"operator '=' 1:7",
+		"identifier 'b' 2:3",
+		"compare ':' 2:4",
+		"identifier 'c' 2:7",
+		"operator '+' 2:9",
+		"number '12' 2:11",
+		"() '(c + 12)' 2:6",
+		"comment '// note\n' 2:15",
+		"string '\"d \\\" e\"' 3:3",
+		"operator '=' 3:12",
+		"operator '=' 3:13",
+		"identifier 'f' 3:15",
+		"operator '/' 3:16",
+		"operator '=' 3:17",
+		"identifier 'g' 3:18",
+		"{} '{\n  b: (c + 12) // note\n  \"d \\\" e\" == f/=g\n}' 1:9"
+	);
+
 
 	/** Run a hasNext()/acceptNext() loop using the given parser 'cond'.
 	 * The test is run with the condition recycled (if possible) and copied to ensure that results are the same.
@@ -53,4 +95,126 @@ public interface ParserTestUtils {
 		}
 	}
 
+
+	/** Create a random, but valid, source string for the {@link #createFactories(boolean)} grammar
+	 * which contains nested blocks and strings/comments containing block chars to make speculative parsing difficult.
+	 * Blocks are nested at most 8 deep like real source, an unbounded random walk's depth grows with the number of statements
+	 */
+	public static String createSource(Random rand, int statements) {
+		var snippets = List.of(
+			"var a = 12;\n",
+			"b: (c + 3) // note {\n",
+			"\"str { \\\" ( \" == d/=e\n",
+			"f => g +=+ h: (i / (j + 1))\n",
+			"// comment \" }\n",
+			"x == \"}\" + \"//\"\n"
+		);
+		var sb = new StringBuilder();
+		int depth = 0;
+		for(int i = 0; i < statements; i++) {
+			int r = rand.nextInt(snippets.size() + 2);
+			if(r == snippets.size() && depth < 8) {
+				sb.append("{\n");
+				depth++;
+			}
+			else if(r == snippets.size() + 1 && depth > 0) {
+				sb.append("}\n");
+				depth--;
+			}
+			else {
+				sb.append(snippets.get(r % snippets.size()));
+			}
+		}
+		while(depth-- > 0) {
+			sb.append("}\n");
+		}
+		return sb.toString();
+	}
+
+
+	public static List<String> tokenize(String src, boolean hideFirstChars, boolean reusable, boolean compileLiterals) {
+		return tokenize(src, hideFirstChars, reusable, compileLiterals, false);
+	}
+
+
+	public static List<String> tokenize(String src, boolean hideFirstChars, boolean reusable, boolean compileLiterals, boolean advanceTogether) {
+		return tokenize(src, hideFirstChars, reusable, compileLiterals, advanceTogether, false, null);
+	}
+
+
+	public static List<String> tokenize(String src, boolean hideFirstChars, boolean reusable, boolean compileLiterals, boolean advanceTogether, boolean skipAhead, TokenizationLogger parseLog) {
+		var tokens = new ArrayList<String>();
+		var parser = new CharMultiConditionParser(parseLog, compileLiterals, createConditions(src, tokens, hideFirstChars, reusable));
+		parser.setAdvanceParsersTogether(advanceTogether);
+		parser.setSkipAheadCompoundParsers(skipAhead);
+		TextParser buf = TextCharsParser.of(src);
+
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			parser.parse(ch, buf);
+		}
+		return tokens;
+	}
+
+
+	public static List<Entry<CharParserFactory, TextFragmentConsumer>> createConditions(String src, List<String> dst, boolean hideFirstChars, boolean reusable) {
+		var factories = createFactories(reusable);
+		var consumers = createConsumers(src, dst);
+
+		var conds = new ArrayList<Entry<CharParserFactory, TextFragmentConsumer>>();
+		for(int i = 0, size = factories.size(); i < size; i++) {
+			var factory = factories.get(i);
+			conds.add(new AbstractMap.SimpleImmutableEntry<>(hideFirstChars ? hideFirstChars(factory) : factory, consumers.get(i)));
+		}
+		return conds;
+	}
+
+
+	public static List<CharParserFactory> createFactories(boolean reusable) {
+		return createFactories((builder) -> builder.build(reusable));
+	}
+
+
+	public static List<CharParserFactory> createFactories(Function<StringParserBuilder, CharParserFactory> build) {
+		return List.of(
+			build.apply(new StringParserBuilder("{}").addStartEndMarkers("{}", '{', '}', Inclusion.INCLUDE).isCompound(true)),
+			build.apply(new StringParserBuilder("()").addStartEndMarkers("()", '(', ')', Inclusion.INCLUDE).isCompound(true)),
+			build.apply(new StringParserBuilder("string").addStartEndNotPrecededByMarkers("string", '"', '\\', '"', Inclusion.INCLUDE)),
+			build.apply(new StringParserBuilder("comment").addStartEndMarkers("comment", "//", '\n', Inclusion.INCLUDE)),
+			// an identifier factory without first chars
+			build.apply(new StringParserBuilder("identifier").addConditionMatcher(CharConditions.Identifier.newInstance("identifier", false))),
+			build.apply(new StringParserBuilder("number").addCharMatcher("number", new char[] { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' })),
+			build.apply(new StringParserBuilder("arrow").addStringLiteralMarker("arrow", "=>", "+=+")),
+			build.apply(new StringParserBuilder("operator").addStringLiteralMarker("operator", "=", "==", "+", "/", "/=")),
+			build.apply(new StringParserBuilder("compare").addStringLiteralMarker("compare", "+==", "/=b").addCharLiteralMarker("compare", ':'))
+		);
+	}
+
+
+	/**
+	 * @return consumers (for the {@link #createFactories(boolean)} factories) which add a 'name 'text' line:column' string to {@code dst} for each token
+	 */
+	public static List<TextFragmentConsumer> createConsumers(String src, List<String> dst) {
+		var names = List.of("{}", "()", "string", "comment", "identifier", "number", "arrow", "operator", "compare");
+		var consumers = new ArrayList<TextFragmentConsumer>();
+		for(var name : names) {
+			consumers.add((off, len, lineStart, colStart, lineEnd, colEnd) -> {
+				dst.add(name + " '" + src.substring(off, off + len) + "' " + lineStart + ":" + colStart);
+			});
+		}
+		return consumers;
+	}
+
+
+	/** Wrap a factory so that it does not provide {@link CharParserFactory#getFirstChars()}
+	 */
+	public static CharParserFactory hideFirstChars(CharParserFactory factory) {
+		return new CharParserFactory() {
+			@Override public boolean isCompound() { return factory.isCompound(); }
+			@Override public boolean isMatch(char ch, TextParser buf) { return factory.isMatch(ch, buf); }
+			@Override public CharParser createParser() { return factory.createParser(); }
+			@Override public void returnParser(CharParser parser) { factory.returnParser(parser); }
+		};
+	}
+
 }
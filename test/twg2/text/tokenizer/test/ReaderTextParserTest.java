@@ -0,0 +1,165 @@
+package twg2.text.tokenizer.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.textParser.TextCharsParser;
+import twg2.parser.textParser.TextParser;
+import twg2.text.tokenizer.CharClass;
+import twg2.text.tokenizer.CharMultiConditionParser;
+import twg2.text.tokenizer.ReaderTextParser;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class ReaderTextParserTest {
+
+	@Test
+	public void positionsMatchInMemoryParser() {
+		var src = "ab\ncd\n\n\nefg\nh";
+		var expect = TextCharsParser.of(src);
+		var buf = new ReaderTextParser(new TrickleReader(src, 2), 1);
+		while(expect.hasNext()) {
+			Assert.assertTrue(buf.hasNext());
+			Assert.assertEquals(expect.nextChar(), buf.nextChar());
+			Assert.assertEquals(expect.getPosition(), buf.getPosition());
+			Assert.assertEquals("line at " + buf.getPosition(), expect.getLineNumber(), buf.getLineNumber());
+			Assert.assertEquals("column at " + buf.getPosition(), expect.getColumnNumber(), buf.getColumnNumber());
+		}
+		Assert.assertFalse(buf.hasNext());
+	}
+
+
+	@Test
+	public void unreadOutsideWindow() {
+		var buf = new ReaderTextParser(new TrickleReader("abcdefghijklmnopqrstuvwxyz", 3), 4);
+		for(int i = 0; i < 20; i++) {
+			buf.nextChar();
+		}
+		buf.unread(4);
+		Assert.assertEquals('q', buf.nextChar());
+		Assert.assertEquals('p', buf.prevChar());
+		try {
+			buf.unread(10);
+			Assert.fail("expected unread past the window to fail");
+		} catch(IllegalStateException ise) {
+			// expected
+		}
+	}
+
+
+	@Test
+	public void streamLengthLimit() {
+		// every char up to the int position limit can be read, one more fails instead of overflowing the position
+		var buf = new ReaderTextParser(new RepeatReader('a', Integer.MAX_VALUE + 1L), 1);
+		try {
+			buf.nextRun(CharClass.of('a'));
+			Assert.fail("expected a stream longer than Integer.MAX_VALUE chars to fail");
+		} catch(IllegalStateException ise) {
+			// expected
+		}
+		Assert.assertEquals(Integer.MAX_VALUE - 1, buf.getPosition());
+	}
+
+
+	@Test
+	public void streamingMatchesInMemory() {
+		var src = ParserTestUtils.createSource(new Random(7), 400);
+		for(boolean compileLiterals : new boolean[] { false, true }) {
+			var expect = ParserTestUtils.tokenize(src, false, true, compileLiterals);
+			for(int readSize : new int[] { 1, 5, 64, 4096 }) {
+				var tokens = tokenize(src, new ReaderTextParser(new TrickleReader(src, readSize), 32), compileLiterals);
+				Assert.assertEquals("readSize=" + readSize, expect, tokens);
+			}
+			var bytes = src.getBytes(StandardCharsets.UTF_8);
+			var tokens = tokenize(src, ReaderTextParser.of(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8, 32), compileLiterals);
+			Assert.assertEquals(expect, tokens);
+		}
+	}
+
+
+	private static List<String> tokenize(String src, TextParser buf, boolean compileLiterals) {
+		var tokens = new ArrayList<String>();
+		var parser = new CharMultiConditionParser(null, compileLiterals, ParserTestUtils.createConditions(src, tokens, false, true));
+		while(buf.hasNext()) {
+			char ch = buf.nextChar();
+			parser.parse(ch, buf);
+		}
+		return tokens;
+	}
+
+
+
+
+	/** A reader which returns at most a fixed number of chars per read, to force buffer refills in the middle of tokens
+	 */
+	static class TrickleReader extends Reader {
+		private final StringReader src;
+		private final int maxRead;
+
+
+		TrickleReader(String src, int maxRead) {
+			this.src = new StringReader(src);
+			this.maxRead = maxRead;
+		}
+
+
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return src.read(cbuf, off, Math.min(len, maxRead));
+		}
+
+
+		@Override
+		public void close() {
+			src.close();
+		}
+
+	}
+
+
+
+
+	/** A reader which returns the same char a fixed number of times
+	 */
+	static class RepeatReader extends Reader {
+		private final char ch;
+		private long remaining;
+
+
+		RepeatReader(char ch, long count) {
+			this.ch = ch;
+			this.remaining = count;
+		}
+
+
+		@Override
+		public int read(char[] cbuf, int off, int len) {
+			if(remaining == 0) {
+				return -1;
+			}
+			int cnt = (int)Math.min(len, remaining);
+			Arrays.fill(cbuf, off, off + cnt, ch);
+			remaining -= cnt;
+			return cnt;
+		}
+
+
+		@Override
+		public void close() {
+		}
+
+	}
+
+}
@@ -2,6 +2,8 @@ package twg2.text.tokenizer.test;
 
 import static twg2.text.tokenizer.test.ParserTestUtils.parseTest;
 
+import java.util.ArrayList;
+
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -71,6 +73,55 @@ public class StringConditionsTest {
 	}
 
 
+	@Test
+	public void literalStringConditionLargeSet() {
+		String name = "LiteralString";
+		// keywords which share long prefixes and fan out widely at the first char
+		var strs = new ArrayList<String>();
+		for(char a = 'a'; a <= 'z'; a++) {
+			for(char b = 'a'; b <= 'l'; b++) {
+				strs.add("" + a + b + "_key");
+			}
+		}
+		strs.add("=");
+		strs.add("==");
+		strs.add("===");
+		CharParser cond = new StringConditions.Literal(name, strs.toArray(new String[0]), Inclusion.INCLUDE);
+
+		for(var str : strs) {
+			parseTest(true, false, name, cond, str);
+		}
+		parseTest(false, false, name, cond, "zl_ke");
+		parseTest(false, true, name, cond, "zm_key");
+		parseTest(false, true, name, cond, "ab_keys");
+		parseTest(false, true, name, cond, "====");
+	}
+
+
+	@Test
+	public void literalStringConditionLongestFirst() {
+		String name = "LiteralString";
+		// a string listed before a shorter string which is its prefix wins, the shorter string only completes if it is listed first
+		CharParser cond = new StringConditions.Literal(name, ary("==", "="), Inclusion.INCLUDE);
+
+		parseTest(true, false, name, cond, "==");
+		parseTest(false, true, name, cond, "=x");
+		parseTest(false, false, name, cond, "=");
+
+		cond = new StringConditions.Literal(name, ary("=", "=="), Inclusion.INCLUDE);
+
+		parseTest(true, false, name, cond, "=");
+		parseTest(true, false, name, cond, "==");
+		parseTest(false, true, name, cond, "=x");
+
+		cond = new StringConditions.Literal(name, ary("-", "-->", "--"), Inclusion.INCLUDE);
+
+		parseTest(true, false, name, cond, "-");
+		parseTest(true, false, name, cond, "--");
+		parseTest(true, false, name, cond, "-->");
+	}
+
+
 	@Test
 	public void endStringCondition() {
 		String[] endMarkers = new String[] {
@@ -106,6 +157,50 @@ public class StringConditionsTest {
 	}
 
 
+	@Test
+	public void endStringConditionOverlapping() {
+		String name = "EndString";
+		CharParser cond = new StringConditions.End(name, ary("*/"), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "/* a ** b ***/", "*/");
+		parseTest(true, false, name, cond, "*".repeat(100_000) + "*/", "*/");
+		parseTest(false, true, name, cond, "*/ ");
+
+		// a partial match which fails can be the start of the next match
+		cond = new StringConditions.End(name, ary("abc", "-->"), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "ababc", "abc");
+		parseTest(true, false, name, cond, "aab-ab---->", "-->");
+		parseTest(false, false, name, cond, "ab-ab--");
+
+		// the first string to end wins, even inside a longer partial match
+		cond = new StringConditions.End(name, ary("abcd", "bc"), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, "xabc", "bc");
+
+		// repeated partial terminators
+		var src = "<".repeat(50_000) + "<<<!>";
+		cond = new StringConditions.End(name, ary("<<<!>"), Inclusion.INCLUDE);
+		parseTest(true, false, name, cond, src, "<<<!>");
+	}
+
+
+	@Test
+	public void endStringConditionCoords() {
+		var cond = new StringConditions.End("EndString", ary("\n}"), Inclusion.INCLUDE);
+		var src = "x\n\n\n}";
+		TextParser buf = TextIteratorParser.of(src);
+		while(buf.hasNext()) {
+			cond.acceptNext(buf.nextChar(), buf);
+		}
+		Assert.assertTrue(cond.isComplete());
+		var coords = cond.getMatchedTextCoords();
+		Assert.assertEquals(3, coords.getOffsetStart());
+		Assert.assertEquals(5, coords.getOffsetEnd());
+		Assert.assertEquals(3, coords.getLineStart());
+		Assert.assertEquals(1, coords.getColumnStart());
+		Assert.assertEquals(4, coords.getLineEnd());
+		Assert.assertEquals(1, coords.getColumnEnd());
+	}
+
+
 	@SafeVarargs
 	private static <T> T[] ary(T... ts) {
 		return ts;
@@ -0,0 +1,111 @@
+package twg2.text.tokenizer.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import twg2.parser.textParser.TextCharsParser;
+import twg2.text.tokenizer.ParserPoolPolicy;
+import twg2.text.tokenizer.TokenizerSpec;
+
+/**
+ * @author TeamworkGuy2
+ * @since 2026-10-17
+ */
+public class TokenizerSpecTest {
+
+	@Test
+	public void sessionsShareSpecAcrossThreads() throws Exception {
+		for(boolean compileLiterals : new boolean[] { false, true }) {
+			// reusable factories have pools which aren't thread safe, sessions must not use them
+			var spec = new TokenizerSpec(compileLiterals, ParserTestUtils.createFactories(true));
+			var srcs = new ArrayList<String>();
+			var expect = new ArrayList<List<String>>();
+			for(int i = 0; i < 8; i++) {
+				var src = ParserTestUtils.createSource(new Random(i), 150);
+				srcs.add(src);
+				expect.add(ParserTestUtils.tokenize(src, false, false, false));
+			}
+
+			var executor = Executors.newFixedThreadPool(4);
+			try {
+				var tasks = new ArrayList<Callable<List<String>>>();
+				for(int rep = 0; rep < 4; rep++) {
+					for(var src : srcs) {
+						tasks.add(() -> tokenize(spec, src));
+					}
+				}
+				var results = executor.invokeAll(tasks);
+				for(int i = 0; i < results.size(); i++) {
+					Assert.assertEquals(expect.get(i % srcs.size()), results.get(i).get());
+				}
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+
+	@Test
+	public void sessionIsReusableAcrossDocuments() {
+		var spec = new TokenizerSpec(false, ParserTestUtils.createFactories(false));
+		var tokens = new ArrayList<String>();
+		var session = spec.newSession(null, ParserTestUtils.createConsumers(ParserTestUtils.SAMPLE_SRC, tokens));
+		for(int i = 0; i < 3; i++) {
+			tokens.clear();
+			var buf = TextCharsParser.of(ParserTestUtils.SAMPLE_SRC);
+			while(buf.hasNext()) {
+				session.parse(buf.nextChar(), buf);
+			}
+			Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, tokens);
+		}
+	}
+
+
+	@Test
+	public void sessionPoolPolicy() {
+		var time = new long[1];
+		var src = ParserTestUtils.SAMPLE_SRC;
+		var spec = new TokenizerSpec(false, ParserTestUtils.createFactories(false), ParserPoolPolicy.shrinkWhenIdle(2, 1000, 1_000_000, () -> time[0]));
+		var tokens = new ArrayList<String>();
+		var session = spec.newSession(null, ParserTestUtils.createConsumers(src, tokens));
+		var buf = TextCharsParser.of(src);
+		while(buf.hasNext()) {
+			session.parse(buf.nextChar(), buf);
+		}
+		Assert.assertEquals(ParserTestUtils.SAMPLE_TOKENS, tokens);
+
+		long hits = 0;
+		for(int i = 0; i < spec.size(); i++) {
+			var stats = session.getPoolStats(i);
+			Assert.assertTrue(stats.getIdle() <= 2);
+			hits += stats.getHits();
+		}
+		Assert.assertTrue(hits > 0);
+
+		// the first call sees the requests since the session was created, the pools are idle after that
+		session.trimIdlePools();
+		time[0] += 2_000_000;
+		session.trimIdlePools();
+		for(int i = 0; i < spec.size(); i++) {
+			Assert.assertEquals(0, session.getPoolStats(i).getIdle());
+		}
+	}
+
+
+	private static List<String> tokenize(TokenizerSpec spec, String src) {
+		var tokens = new ArrayList<String>();
+		var session = spec.newSession(null, ParserTestUtils.createConsumers(src, tokens));
+		var buf = TextCharsParser.of(src);
+		while(buf.hasNext()) {
+			session.parse(buf.nextChar(), buf);
+		}
+		return tokens;
+	}
+
+}